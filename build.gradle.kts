@@ -4,6 +4,9 @@ plugins {
 
     // Apply the application plugin to add support for building a CLI application in Java.
     application
+
+    // JMH benchmarks live in src/jmh and run with `gradle jmh`
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -35,6 +38,166 @@ java {
     }
 }
 
+// The columnar scoring kernel uses the incubating Vector API; without the module it falls back to scalar code
+val vectorModule = listOf("--add-modules", "jdk.incubator.vector")
+
+tasks.withType<JavaCompile>().configureEach {
+    options.compilerArgs.addAll(vectorModule)
+}
+
+tasks.withType<JavaExec>().configureEach {
+    jvmArgs(vectorModule)
+}
+
+tasks.withType<Test>().configureEach {
+    jvmArgs(vectorModule)
+}
+
+jmh {
+    jmhVersion = "1.37"
+    jvmArgsPrepend = vectorModule
+    // Allocation rate and GC counts next to every score
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+    // Narrow a run with -PjmhIncludes=MatchingBenchmark
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes = listOf(it) }
+}
+
+// Compares the last `gradle jmh` run against the baseline recorded by `gradle jmhBaseline` and lists regressions
+tasks.register("jmhCompare") {
+    group = "benchmark"
+    description = "Compares build/results/jmh/results.json with src/jmh/baseline.json"
+    val baselineFile = layout.projectDirectory.file("src/jmh/baseline.json").asFile
+    val resultsFile = layout.buildDirectory.file("results/jmh/results.json").get().asFile
+    val threshold = providers.gradleProperty("jmhThreshold").map { it.toDouble() }.orElse(0.10).get()
+    doLast {
+        val slurper = groovy.json.JsonSlurper()
+
+        // Key every run by benchmark name plus its parameters
+        fun index(file: java.io.File): Map<String, Map<*, *>> =
+            (slurper.parse(file) as List<*>).map { it as Map<*, *> }.associateBy { run ->
+                val params = (run["params"] as Map<*, *>?)?.entries?.joinToString(",") { "${it.key}=${it.value}" }
+                "${run["benchmark"]}" + (params?.let { "($it)" } ?: "")
+            }
+
+        fun score(run: Map<*, *>, metric: String?): Double? {
+            val result = if (metric == null) run["primaryMetric"] else (run["secondaryMetrics"] as Map<*, *>)[metric]
+            return ((result as Map<*, *>?)?.get("score") as Number?)?.toDouble()
+        }
+
+        // An empty or missing file would make every run look NEW and the comparison pass without checking anything
+        if (!resultsFile.isFile) {
+            throw GradleException("No JMH results at $resultsFile; run `gradle jmh` first")
+        }
+        if (!baselineFile.isFile) {
+            throw GradleException("No baseline at $baselineFile; run `gradle jmh jmhBaseline` on the reference " +
+                "machine and commit the file")
+        }
+        val baseline = index(baselineFile)
+        if (baseline.isEmpty()) {
+            throw GradleException("$baselineFile holds no benchmark runs; record it again with `gradle jmh jmhBaseline`")
+        }
+        val current = index(resultsFile)
+        var regressions = 0
+        var compared = 0
+        current.forEach { (key, run) ->
+            val base = baseline[key]
+            if (base == null) {
+                println("NEW      $key")
+                return@forEach
+            }
+            compared++
+            // Latency benchmarks: higher is worse; throughput benchmarks: lower is worse
+            val higherIsWorse = (run["mode"] as String) in setOf("avgt", "sample", "ss")
+            for (metric in listOf(null, "gc.alloc.rate.norm")) {
+                val now = score(run, metric) ?: continue
+                val before = score(base, metric) ?: continue
+                if (before == 0.0) continue
+                val change = (now - before) / before
+                val worse = if (metric != null || higherIsWorse) change > threshold else change < -threshold
+                val label = metric ?: "score"
+                println(String.format("%-8s %s [%s] %.3f -> %.3f (%+.1f%%)",
+                    if (worse) "WORSE" else "ok", key, label, before, now, change * 100))
+                if (worse) regressions++
+            }
+        }
+        if (compared == 0) {
+            throw GradleException("None of the ${current.size} benchmark run(s) in $resultsFile is in the baseline")
+        }
+        if (regressions > 0) {
+            throw GradleException("$regressions benchmark metric(s) regressed by more than ${threshold * 100}%")
+        }
+    }
+}
+
+// Records the last `gradle jmh` run as the baseline jmhCompare checks against; meant for the reference machine only
+tasks.register<Copy>("jmhBaseline") {
+    group = "benchmark"
+    description = "Copies build/results/jmh/results.json to src/jmh/baseline.json"
+    from(layout.buildDirectory.file("results/jmh/results.json"))
+    into(layout.projectDirectory.dir("src/jmh"))
+    rename { "baseline.json" }
+}
+
+// Fails when a benchmark of the last `gradle jmh` run allocated more bytes per operation than its budget allows
+tasks.register("jmhAllocationBudget") {
+    group = "benchmark"
+    description = "Checks gc.alloc.rate.norm in build/results/jmh/results.json against src/jmh/allocation-budgets.properties"
+    val budgetsFile = layout.projectDirectory.file("src/jmh/allocation-budgets.properties").asFile
+    val resultsFile = layout.buildDirectory.file("results/jmh/results.json").get().asFile
+    doLast {
+        val budgets = java.util.Properties().apply { budgetsFile.inputStream().use { load(it) } }
+        val runs = (groovy.json.JsonSlurper().parse(resultsFile) as List<*>).map { it as Map<*, *> }
+        var failures = 0
+        var checked = 0
+        for (run in runs) {
+            val benchmark = run["benchmark"] as String
+            val budget = budgets.getProperty(benchmark)?.toDouble() ?: continue
+            val metric = (run["secondaryMetrics"] as Map<*, *>)["gc.alloc.rate.norm"] as Map<*, *>? ?: continue
+            checked++
+            val allocated = (metric["score"] as Number).toDouble()
+            val over = allocated > budget
+            println(String.format("%-8s %s %.0f B/op (budget %.0f)", if (over) "OVER" else "ok", benchmark, allocated, budget))
+            if (over) failures++
+        }
+        // A run without the budgeted benchmarks or without the GC profiler would otherwise pass unchecked
+        if (checked == 0) {
+            throw GradleException("No benchmark with a budget and gc.alloc.rate.norm in $resultsFile; " +
+                "run `gradle jmh -PjmhIncludes=AllocationBenchmark` first")
+        }
+        if (failures > 0) {
+            throw GradleException("$failures benchmark(s) allocated more than their budget")
+        }
+    }
+}
+
+// Starts shard processes on this machine and checks sharded rankings against a single-process ranking
+tasks.register<JavaExec>("shardHarness") {
+    group = "verification"
+    description = "Runs ShardHarness; pass -PshardArgs=\"<shards> <candidates>\" to change its defaults"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.sample.smartcv.ShardHarness")
+    providers.gradleProperty("shardArgs").orNull?.let { args(it.split(" ")) }
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs LoadDriver against a synthetic library; pass -PloadArgs=\"--candidates=... --seconds=...\""
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.sample.smartcv.LoadDriver")
+    providers.gradleProperty("loadArgs").orNull?.let { args(it.split(" ")) }
+}
+
+tasks.register<JavaExec>("generateCorpus") {
+    group = "application"
+    description = "Writes a synthetic corpus or snapshot; pass -PcorpusArgs=\"<file> <count> [seed]\""
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.sample.smartcv.CorpusGenerator")
+    providers.gradleProperty("corpusArgs").orNull?.let { args(it.split(" ")) }
+}
+
 application {
     mainClass.set("com.sample.smartcv.SmartCVAnalyzer")
+    applicationDefaultJvmArgs = vectorModule
 }
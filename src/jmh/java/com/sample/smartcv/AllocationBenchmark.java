@@ -0,0 +1,67 @@
+package com.sample.smartcv;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Bytes allocated on the scoring path; the budgets in src/jmh/allocation-budgets.properties are checked by
+// `gradle jmhAllocationBudget` against the gc.alloc.rate.norm of these benchmarks
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+    // Library size; large enough that a per-candidate allocation would dwarf the per-query ones
+    private static final int CANDIDATES = 10_000;
+
+    // Size of the first page the application shows
+    private static final int PAGE_SIZE = 20;
+
+    private List<CV> library;
+    private JobDescription job;
+    private WeightedMatchingService weighted;
+    private IndexedMatchingService indexed;
+
+    @Setup
+    public void setUp() {
+        library = BenchmarkData.candidates(CANDIDATES, 7);
+        job = BenchmarkData.job(3, 11);
+        weighted = new WeightedMatchingService();
+        indexed = new IndexedMatchingService(library);
+    }
+
+    // Scores every candidate against one compiled plan; should allocate nothing per candidate
+    @Benchmark
+    public double scoreLibrary() {
+        ScoringPlan plan = ScoringPlan.of(job);
+        double total = 0;
+        for (int i = 0; i < library.size(); i++) {
+            total += weighted.calculateMatchScore(library.get(i), plan);
+        }
+        return total;
+    }
+
+    // First page over a full scan; allocations should only depend on the page size
+    @Benchmark
+    public List<CandidateMatch> weightedTopK() {
+        return weighted.analyzeAndRank(library, job, PAGE_SIZE);
+    }
+
+    // First page through the skill index
+    @Benchmark
+    public List<CandidateMatch> indexedTopK() {
+        return indexed.analyzeAndRank(library, job, PAGE_SIZE);
+    }
+}
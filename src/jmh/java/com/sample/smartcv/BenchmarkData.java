@@ -0,0 +1,81 @@
+package com.sample.smartcv;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Deterministic resumes and candidates shared by the benchmarks, so runs are comparable with the baseline
+final class BenchmarkData {
+    private static final String[] FIRST_NAMES = {"John", "Emma", "Michael", "Sophia", "William",
+            "Olivia", "James", "Ava", "Robert", "Mia"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones",
+            "Miller", "Davis", "Garcia", "Rodriguez", "Wilson"};
+    static final String[] SKILLS = {"Java", "Spring", "SQL", "Python", "Data Analysis", "Machine Learning",
+            "JavaScript", "React", "Node.js", "C#", ".NET", "Azure", "HTML", "CSS", "Django", "PostgreSQL",
+            "Hibernate", "Microservices", "Swift", "iOS Development", "Xcode", "Kotlin", "Android Development",
+            "Firebase", "Go", "Docker", "Kubernetes"};
+    private static final String[] DEGREES = {"Bachelor's", "Master's", "PhD"};
+    private static final String[] UNIVERSITIES = {"Tech", "State", "City", "National"};
+
+    private BenchmarkData() {
+    }
+
+    // Resume texts in the format the sample library uses, with a realistic amount of free text around the fields
+    static List<String> resumes(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> resumes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            int experience = random.nextInt(20) + 1;
+            resumes.add(String.format("""
+                    Name: %s %s
+                    Email: %s.%s%d@example.com
+                    Skills: %s
+                    Experience: %d years
+                    Education: %s in Computer Science, University of %s (%d)
+                    Summary: Engineer with a track record of shipping production systems and mentoring
+                    colleagues. Worked across several teams on services, data pipelines and tooling.
+                    """,
+                    first, last, first.toLowerCase(), last.toLowerCase(), i,
+                    String.join(", ", skills(random, 3 + random.nextInt(5))),
+                    experience,
+                    DEGREES[random.nextInt(DEGREES.length)], UNIVERSITIES[random.nextInt(UNIVERSITIES.length)],
+                    2023 - experience));
+        }
+        return resumes;
+    }
+
+    // Candidates built directly, skipping the parser, for matching benchmarks
+    static List<CV> candidates(int count, long seed) {
+        Random random = new Random(seed);
+        List<CV> candidates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int experience = random.nextInt(20) + 1;
+            candidates.add(new CV(FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / 10) % LAST_NAMES.length],
+                    "candidate" + i + "@example.com",
+                    skills(random, 3 + random.nextInt(5)),
+                    experience,
+                    List.of(new CV.Education("University of " + UNIVERSITIES[random.nextInt(UNIVERSITIES.length)],
+                            DEGREES[random.nextInt(DEGREES.length)], "Computer Science", 2023 - experience))));
+        }
+        return candidates;
+    }
+
+    // A job requiring the given number of skills
+    static JobDescription job(int requiredSkills, long seed) {
+        return new JobDescription("Benchmark", skills(new Random(seed), requiredSkills),
+                new JobDescription.ExperienceRange(5, null),
+                List.of(new JobDescription.DegreeRequirement("Master's", "Computer Science")));
+    }
+
+    private static Set<String> skills(Random random, int count) {
+        Set<String> skills = new HashSet<>();
+        while (skills.size() < Math.min(count, SKILLS.length)) {
+            skills.add(SKILLS[random.nextInt(SKILLS.length)]);
+        }
+        return skills;
+    }
+}
@@ -0,0 +1,82 @@
+package com.sample.smartcv;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Query latency of the matching services over libraries of different sizes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MatchingBenchmark {
+    // Size of the first page the application shows
+    private static final int PAGE_SIZE = 20;
+
+    // Number of open requisitions matched together in the batch benchmark
+    private static final int BATCH_JOBS = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    public int candidates;
+
+    @Param({"1", "3", "8"})
+    public int requiredSkills;
+
+    @Param({"weighted", "indexed", "parallel", "columnar"})
+    public String service;
+
+    private List<CV> library;
+    private JobDescription job;
+    private List<JobDescription> batch;
+    private MatchingService matcher;
+
+    @Setup
+    public void setUp() {
+        library = BenchmarkData.candidates(candidates, 7);
+        job = BenchmarkData.job(requiredSkills, 11);
+        batch = new ArrayList<>();
+        for (int i = 0; i < BATCH_JOBS; i++) {
+            batch.add(BenchmarkData.job(requiredSkills, 100 + i));
+        }
+        matcher = switch (service) {
+            case "weighted" -> new WeightedMatchingService();
+            case "indexed" -> new IndexedMatchingService(library);
+            case "parallel" -> new ParallelMatchingService();
+            case "columnar" -> new ColumnarMatchingService(library);
+            default -> throw new IllegalArgumentException("Unknown service: " + service);
+        };
+    }
+
+    // Full ranking of the library
+    @Benchmark
+    public List<CandidateMatch> analyzeAndRank() {
+        return matcher.analyzeAndRank(library, job);
+    }
+
+    // Only the first page of results
+    @Benchmark
+    public List<CandidateMatch> analyzeAndRankTopK() {
+        return matcher.analyzeAndRank(library, job, PAGE_SIZE);
+    }
+
+    // First page for each of a batch of jobs, in a single pass where the service supports it
+    @Benchmark
+    public Map<JobDescription, List<CandidateMatch>> analyzeAndRankAll() {
+        return matcher.analyzeAndRankAll(library, batch, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,49 @@
+package com.sample.smartcv;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Parsing throughput in resumes per second
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingBenchmark {
+    private static final int RESUMES = 1_000;
+
+    @Param({"simple", "streaming"})
+    public String parser;
+
+    private ResumeParser resumeParser;
+    private List<String> resumes;
+
+    @Setup
+    public void setUp() {
+        resumeParser = parser.equals("simple") ? new SimpleResumeParser() : new StreamingResumeParser();
+        resumes = BenchmarkData.resumes(RESUMES, 42);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RESUMES)
+    public void parse(Blackhole blackhole) {
+        for (String resume : resumes) {
+            blackhole.consume(resumeParser.parse(resume));
+        }
+    }
+}
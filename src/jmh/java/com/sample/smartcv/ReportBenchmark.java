@@ -0,0 +1,70 @@
+package com.sample.smartcv;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Time to render the detailed report, with System.out discarding the output, and to export the same ranking
+// as CSV and JSON Lines into a discarding writer
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmark {
+    @Param({"100", "10000"})
+    public int rows;
+
+    private List<CandidateMatch> matches;
+    private JobDescription job;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() {
+        job = BenchmarkData.job(3, 11);
+        matches = new WeightedMatchingService().analyzeAndRank(BenchmarkData.candidates(rows, 7), job);
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void printDetailedReport() {
+        AnalysisResultPrinter.printDetailedReport(matches, job);
+    }
+
+    @Benchmark
+    public void exportCsv() throws IOException {
+        try (ResultSink sink = new CsvResultSink(Writer.nullWriter(), true)) {
+            sink.writeAll(job, matches);
+        }
+    }
+
+    @Benchmark
+    public void exportJsonLines() throws IOException {
+        try (ResultSink sink = new JsonLinesResultSink(Writer.nullWriter(), true)) {
+            sink.writeAll(job, matches);
+        }
+    }
+}
@@ -1,44 +1,29 @@
 package com.sample.smartcv;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.Set;
-import java.util.HashSet;
 
 public final class AnalysisResultPrinter {
 
     // Method to print a detailed analysis report comparing candidates' matches to the job description
     public static void printDetailedReport(List<CandidateMatch> matches, JobDescription job) {
-        // Print the header of the report
-        System.out.println("\n=== Detailed Analysis Report ===");
+        long started = Metrics.start();
 
-        // Display job title and details about the required skills and experience
-        System.out.println("Job Title: " + job.getTitle());
-        System.out.println("Required Skills: " + String.join(", ", job.getRequiredSkills()));
-        System.out.println("Required Experience: " + job.getRequiredExperience().minYears() + "+ years");
-        System.out.println("------------------------------------------------");
-
-        // Iterate over each candidate match and display their details
-        for (int i = 0; i < matches.size(); i++) {
-            CandidateMatch match = matches.get(i);
-            CV candidate = match.getCandidate();
-
-            // Display candidate's name and match score
-            System.out.printf("%d. %s (Score: %.1f%%)\n", i + 1, candidate.getName(), match.getScore() * 100);
-
-            // Display candidate's contact email and years of experience
-            System.out.println("   Email: " + candidate.getEmail());
-            System.out.println("   Experience: " + candidate.getYearsExperience() + " years");
+        // Render the report through one buffered sink: a few large writes instead of several printlns per candidate
+        try (ResultSink sink = toStandardOutput(TextResultSink.Layout.DETAILED_REPORT)) {
+            sink.writeAll(job, matches);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not print the report", e);
+        }
 
-            // Find the set of skills that match between the candidate and job requirements
-            Set<String> matchedSkills = new HashSet<>(candidate.getSkills());
-            matchedSkills.retainAll(job.getRequiredSkills()); // Keep only the common skills
-            System.out.println("   Matched Skills: " + matchedSkills);
+        Metrics.record(Metrics.Stage.RENDER, started);
+        Metrics.resultsReturned(matches.size());
+    }
 
-            // Check and display if there are any missing skills
-            Set<String> missingSkills = candidate.getMissingSkills(job.getRequiredSkills());
-            if (!missingSkills.isEmpty()) {
-                System.out.println("   Missing Skills: " + missingSkills);
-            }
-        }
+    // Text sink over the current System.out, which is flushed but left open when the sink is closed
+    static ResultSink toStandardOutput(TextResultSink.Layout layout) {
+        return new TextResultSink(new OutputStreamWriter(System.out, System.out.charset()), layout, false);
     }
 }
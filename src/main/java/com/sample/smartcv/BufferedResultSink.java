@@ -0,0 +1,163 @@
+package com.sample.smartcv;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Objects;
+
+// Base of the built-in sinks: rows are rendered into one reusable character buffer, which goes to the target in a
+// single write whenever it holds a batch, so the target sees a few large writes instead of several per row.
+// The job's required skills are looked up in the skill dictionary once, in begin(), together with the close
+// spellings the job resolved them to; per row, the matched and missing skills then come from binary searches over
+// the candidate's sorted skill ids, with no sets built. A skill counts as matched whenever the scorer gave the
+// candidate credit for it, including credit for a synonym or a close spelling.
+public abstract class BufferedResultSink implements ResultSink {
+    // Characters collected before they are written to the target
+    static final int BATCH_CHARS = 64 * 1024;
+
+    private final Writer target; // Receives the batches
+    private final boolean closeTarget; // Whether close() closes the target too, rather than only flushing it
+    private final StringBuilder batch = new StringBuilder(BATCH_CHARS + 1024); // Rendered rows not yet written
+    private char[] chars = new char[BATCH_CHARS + 1024]; // Batch copied out for the write, without a String copy
+    private String[] requiredSkills; // Required skills of the current job, in the job's order
+    private int[][] requiredIds; // Per required skill: its id (-1 if nobody has it), then its credited close spellings
+    private boolean[] hasRequired; // Per required skill: whether the current row's candidate has it
+    private int rank; // Rank of the last row written
+
+    // Creates a sink writing to the target; with closeTarget false, e.g. for System.out, the target is only flushed
+    protected BufferedResultSink(Writer target, boolean closeTarget) {
+        this.target = Objects.requireNonNull(target);
+        this.closeTarget = closeTarget;
+    }
+
+    @Override
+    public final void begin(JobDescription job) throws IOException {
+        requiredSkills = job.getRequiredSkillsView().toArray(new String[0]);
+        requiredIds = new int[requiredSkills.length][];
+        hasRequired = new boolean[requiredSkills.length];
+        int[][] fuzzySkillIds = job.fuzzySkillIds();
+        for (int i = 0; i < requiredSkills.length; i++) {
+            int group = job.fuzzyGroupOf(requiredSkills[i]);
+            // The same ids the scoring plan reads, so a skill is listed as matched exactly when it earned credit
+            requiredIds[i] = group >= 0
+                    ? fuzzySkillIds[group]
+                    : new int[] {SkillDictionary.global().lookup(requiredSkills[i])};
+        }
+        rank = 0;
+        header(batch, job);
+        flushIfFull();
+    }
+
+    @Override
+    public final void accept(CandidateMatch match) throws IOException {
+        if (requiredSkills == null) {
+            throw new IllegalStateException("begin() must be called before the first row");
+        }
+        int[] skillIds = match.getCandidate().skillIds();
+        for (int i = 0; i < requiredIds.length; i++) {
+            hasRequired[i] = hasAny(skillIds, requiredIds[i]);
+        }
+        row(batch, ++rank, match);
+        flushIfFull();
+    }
+
+    @Override
+    public final void end() throws IOException {
+        footer(batch);
+        writeBatch();
+        target.flush();
+    }
+
+    // Writes what is still buffered, then closes or flushes the target
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBatch();
+        } finally {
+            if (closeTarget) {
+                target.close();
+            } else {
+                target.flush();
+            }
+        }
+    }
+
+    // Renders whatever comes before the first row
+    protected abstract void header(StringBuilder out, JobDescription job);
+
+    // Renders one row; the required-skill accessors describe this row's candidate
+    protected abstract void row(StringBuilder out, int rank, CandidateMatch match);
+
+    // Renders whatever comes after the last row; nothing by default
+    protected void footer(StringBuilder out) {
+    }
+
+    // Number of skills the job requires
+    protected final int requiredSkillCount() {
+        return requiredSkills.length;
+    }
+
+    // Required skill at the index, in the job's order
+    protected final String requiredSkill(int index) {
+        return requiredSkills[index];
+    }
+
+    // Whether the candidate of the row being rendered earned credit for the required skill at the index
+    protected final boolean hasRequiredSkill(int index) {
+        return hasRequired[index];
+    }
+
+    // Number of required skills the candidate of the row being rendered lacks
+    protected final int missingSkillCount() {
+        int missing = 0;
+        for (boolean has : hasRequired) {
+            if (!has) {
+                missing++;
+            }
+        }
+        return missing;
+    }
+
+    // Appends the row candidate's required skills that it has (or lacks), separated by the separator
+    protected final void appendRequiredSkills(StringBuilder out, boolean has, String separator) {
+        boolean first = true;
+        for (int i = 0; i < requiredSkills.length; i++) {
+            if (hasRequired[i] == has) {
+                if (!first) {
+                    out.append(separator);
+                }
+                out.append(requiredSkills[i]);
+                first = false;
+            }
+        }
+    }
+
+    // Whether the sorted skill ids contain any of the ids; -1 stands for a skill nobody has
+    private static boolean hasAny(int[] skillIds, int[] ids) {
+        for (int id : ids) {
+            if (id >= 0 && Arrays.binarySearch(skillIds, id) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void flushIfFull() throws IOException {
+        if (batch.length() >= BATCH_CHARS) {
+            writeBatch();
+        }
+    }
+
+    private void writeBatch() throws IOException {
+        int length = batch.length();
+        if (length == 0) {
+            return;
+        }
+        if (length > chars.length) {
+            chars = new char[length]; // A single row longer than a batch
+        }
+        batch.getChars(0, length, chars, 0);
+        target.write(chars, 0, length);
+        batch.setLength(0);
+    }
+}
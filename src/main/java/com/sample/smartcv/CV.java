@@ -6,24 +6,27 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public final class CV {
+    // Patterns compiled once; bulk ingestion validates hundreds of thousands of emails
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$");
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("(\\d+)");
+
     private final String name; // Candidate's name
     private final String email; // Candidate's email address
-    private final Set<String> skills; // Set of skills the candidate possesses
+    private final int[] skillIds; // Sorted dictionary ids of the skills the candidate possesses
     private final int yearsExperience; // Total years of experience the candidate has
     private final List<Education> education; // List of candidate's educational qualifications
+    private final DegreeLevel highestDegree; // Highest level among the education entries, classified once
 
     // Constructor to initialize the candidate's details
     public CV(String name, String email, Set<String> skills,
               int yearsExperience, List<Education> education) {
         this.name = validateName(name); // Validate and set name
         this.email = validateEmail(email); // Validate and set email
-        // Normalize skills (trim, lowercase, remove duplicates)
-        this.skills = skills.stream()
-                .map(String::trim)
-                .map(String::toLowerCase)
-                .collect(Collectors.toSet());
+        // Normalize skills (trim, lowercase, remove duplicates) and store them as dictionary ids
+        this.skillIds = SkillDictionary.global().encode(skills);
         this.yearsExperience = yearsExperience;
         this.education = List.copyOf(education); // Make a defensive copy of education list
+        this.highestDegree = DegreeLevel.highest(this.education);
     }
 
     // Validate the name, ensuring it is not blank
@@ -36,7 +39,7 @@ public final class CV {
 
     // Validate the email format using a regex pattern
     private String validateEmail(String email) {
-        if (email == null || !email.matches("^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$")) {
+        if (email == null || !EMAIL_PATTERN.matcher(email).matches()) {
             throw new IllegalArgumentException("Invalid email format");
         }
         return email.trim().toLowerCase(); // Normalize email to lowercase
@@ -44,32 +47,48 @@ public final class CV {
 
     // Check if the candidate has a specific skill
     public boolean hasSkill(String skill) {
-        if (skill == null || skill.isBlank()) {
-            return false;
-        }
-        String normalizedSkill = skill.trim().toLowerCase(); // Normalize skill before checking
-        return skills.contains(normalizedSkill);
+        int id = SkillDictionary.global().lookup(skill); // Normalizes the skill before looking it up
+        return id >= 0 && Arrays.binarySearch(skillIds, id) >= 0;
+    }
+
+    // Count how many skills of the given bitset the candidate possesses, without touching any strings
+    int countSkills(long[] skillBits) {
+        return SkillDictionary.countOverlap(skillIds, skillBits);
+    }
+
+    // Direct access to the sorted skill ids for indexes; callers must not modify the array
+    int[] skillIds() {
+        return skillIds;
     }
 
     // Get the skills that the candidate is missing compared to the required skills
     public Set<String> getMissingSkills(Set<String> requiredSkills) {
-        return requiredSkills.stream()
-                .filter(skill -> !hasSkill(skill)) // Filter out the skills already possessed by the candidate
-                .collect(Collectors.toSet());
+        Set<String> missing = new HashSet<>();
+        for (String skill : requiredSkills) {
+            if (!hasSkill(skill)) { // Skip the skills already possessed by the candidate
+                missing.add(skill);
+            }
+        }
+        return missing;
     }
 
     // Standard getters for the fields
     public String getName() { return name; }
     public String getEmail() { return email; }
-    public Set<String> getSkills() { return new HashSet<>(skills); } // Return a new HashSet to avoid modification
+    public Set<String> getSkills() { return SkillDictionary.global().decode(skillIds); } // Return a new HashSet to avoid modification
     public int getYearsExperience() { return yearsExperience; }
+    public DegreeLevel getHighestDegree() { return highestDegree; }
     public List<Education> getEducation() { return new ArrayList<>(education); } // Return a new ArrayList to avoid modification
 
+    // Read-only views for hot paths; they copy nothing and throw on modification
+    public Set<String> getSkillsView() { return SkillDictionary.global().view(skillIds); }
+    public List<Education> getEducationView() { return education; } // Already unmodifiable
+
     // Method to display candidate details in a human-readable format
     public void displayDetails() {
         System.out.println("Name: " + name);
         System.out.println("Email: " + email);
-        System.out.println("Skills: " + String.join(", ", skills));
+        System.out.println("Skills: " + String.join(", ", getSkillsView()));
         System.out.println("Experience: " + yearsExperience + " years");
         System.out.println("Education: " + education.stream()
                 .map(e -> e.degree() + " in " + e.field())
@@ -87,7 +106,7 @@ public final class CV {
     // Utility method to parse the number of years from a string representation of experience
     public static int parseExperienceYears(String experience) {
         if (experience == null) return 0;
-        Matcher matcher = Pattern.compile("(\\d+)").matcher(experience); // Match digits in the experience string
+        Matcher matcher = NUMBER_PATTERN.matcher(experience); // Match digits in the experience string
         return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0; // Return the first number found, or 0 if none
     }
 }
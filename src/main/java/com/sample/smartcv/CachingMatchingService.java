@@ -0,0 +1,203 @@
+package com.sample.smartcv;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+public class CachingMatchingService implements MatchingService {
+    // Defaults used by the single-argument constructor
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    // Key used for full rankings, which have no top-K limit
+    private static final int FULL_RANKING = -1;
+
+    private final MatchingService delegate; // Service computing results on a miss
+    private final int maxEntries; // Size bound of the cache
+    private final long timeToLiveNanos; // Age after which an entry is no longer served
+    private final LongSupplier libraryVersion; // Version stamp that changes whenever candidates are added or removed
+    private final Map<QueryKey, Entry> entries; // Access-ordered map, so the eldest entry is the least recently used
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Caches results of the delegate for a library that never changes, or that is queried through repository
+    // snapshots, which carry their own version. A plain list that is modified in place, even by set(), needs the
+    // constructor taking a version supplier, or hits keep returning rankings of the old contents.
+    public CachingMatchingService(MatchingService delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES, DEFAULT_TIME_TO_LIVE, () -> 0L);
+    }
+
+    // Caches results of the delegate; entries are dropped once libraryVersion reports a different value. For a
+    // plain list the supplier must change on every modification of the list, since an entry only matches the same
+    // list object with the same size and version. Queries over a CandidateRepository snapshot use the snapshot's
+    // own version instead, which is exact even when the repository changes while the query runs.
+    public CachingMatchingService(MatchingService delegate, int maxEntries, Duration timeToLive,
+                                  LongSupplier libraryVersion) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one entry");
+        }
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Time to live must be positive");
+        }
+        this.delegate = Objects.requireNonNull(delegate);
+        this.maxEntries = maxEntries;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.libraryVersion = Objects.requireNonNull(libraryVersion);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<QueryKey, Entry> eldest) {
+                if (size() > CachingMatchingService.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job) {
+        return cached(candidates, job, FULL_RANKING);
+    }
+
+    @Override
+    public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
+        }
+        return cached(candidates, job, k);
+    }
+
+    // Serves the cursor from a cached full ranking when there is one, otherwise lets the delegate page lazily
+    @Override
+    public MatchCursor openCursor(List<CV> candidates, JobDescription job) {
+        List<CandidateMatch> ranked = lookup(QueryKey.of(job, FULL_RANKING), candidates, versionOf(candidates));
+        if (ranked != null) {
+            hits.increment();
+            return MatchCursor.of(ranked);
+        }
+        misses.increment(); // Nothing is stored: the cursor pages lazily and never produces a full ranking
+        return delegate.openCursor(candidates, job);
+    }
+
+    // Current counters and size, for sizing the cache
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+        }
+    }
+
+    // Drops every cached result
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    // Returns the cached result for the query, computing and storing it on a miss
+    private List<CandidateMatch> cached(List<CV> candidates, JobDescription job, int k) {
+        QueryKey key = QueryKey.of(job, k);
+        long version = versionOf(candidates);
+
+        List<CandidateMatch> result = lookup(key, candidates, version);
+        if (result != null) {
+            hits.increment();
+            return new ArrayList<>(result); // Callers get their own copy, as from an uncached service
+        }
+        misses.increment();
+
+        // Compute outside the lock so a slow query does not block hits on other keys
+        List<CandidateMatch> computed = k == FULL_RANKING
+                ? delegate.analyzeAndRank(candidates, job)
+                : delegate.analyzeAndRank(candidates, job, k);
+        synchronized (entries) {
+            entries.put(key, new Entry(new WeakReference<>(candidates), candidates.size(), version,
+                    System.nanoTime(), List.copyOf(computed)));
+        }
+        return computed;
+    }
+
+    // Returns the cached result if it is still valid for this library and version, dropping it otherwise
+    private List<CandidateMatch> lookup(QueryKey key, List<CV> candidates, long version) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            boolean stale = entry.library().get() != candidates
+                    || entry.librarySize() != candidates.size()
+                    || entry.libraryVersion() != version
+                    || System.nanoTime() - entry.createdNanos() > timeToLiveNanos;
+            if (stale) {
+                entries.remove(key);
+                evictions.increment();
+                return null;
+            }
+            return entry.matches();
+        }
+    }
+
+    // Version the candidates were taken at: a repository snapshot knows its own, any other list the supplier's
+    private long versionOf(List<CV> candidates) {
+        return candidates instanceof CandidateRepository.Snapshot snapshot
+                ? snapshot.version()
+                : libraryVersion.getAsLong();
+    }
+
+    // Snapshot of the cache counters
+    public record Stats(long hits, long misses, long evictions, int size) {
+        // Fraction of lookups answered from the cache
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d evictions=%d size=%d hitRate=%.1f%%",
+                    hits, misses, evictions, size, hitRate() * 100);
+        }
+    }
+
+    // Cached result together with what it was computed against. The list is held weakly, so an entry does not keep
+    // an old library, or a repository snapshot, reachable; once it is collected the entry can no longer match.
+    private record Entry(WeakReference<List<CV>> library, int librarySize, long libraryVersion, long createdNanos,
+                         List<CandidateMatch> matches) {}
+
+    // Canonical form of a query: everything that influences the scores, nothing that does not (like the title)
+    private record QueryKey(List<String> skills, int minYears, Integer maxYears,
+                            List<JobDescription.DegreeRequirement> education, HardFilters filters, int k) {
+
+        static QueryKey of(JobDescription job, int k) {
+            // Required skills are already normalized by JobDescription; sorting makes the order irrelevant
+            List<String> skills = new ArrayList<>(job.getRequiredSkillsView());
+            skills.sort(null);
+
+            List<JobDescription.DegreeRequirement> education = new ArrayList<>();
+            for (JobDescription.DegreeRequirement requirement : job.getRequiredEducationView()) {
+                education.add(new JobDescription.DegreeRequirement(normalize(requirement.degreeType()),
+                        normalize(requirement.field())));
+            }
+            education.sort(Comparator.comparing(JobDescription.DegreeRequirement::degreeType)
+                    .thenComparing(JobDescription.DegreeRequirement::field));
+
+            JobDescription.ExperienceRange experience = job.getRequiredExperience();
+            // HardFilters is a record over normalized values with an immutable set, so it compares by value
+            return new QueryKey(List.copyOf(skills), experience.minYears(), experience.maxYears(),
+                    List.copyOf(education), job.getHardFilters(), k);
+        }
+
+        private static String normalize(String value) {
+            return value == null ? "" : value.trim().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,625 @@
+package com.sample.smartcv;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Mutable candidate library that can change while queries are running.
+ *
+ * Candidates live in an append-only log of slots split into fixed-size chunks. Adding a candidate writes into
+ * the next free slot; removing one only marks its slot as dead (a tombstone), and updating is a remove followed
+ * by an add. Each change publishes a new immutable Snapshot, which readers obtain without locking. Slots beyond a
+ * snapshot's slot count are invisible to it, so appends can share arrays with older snapshots; tombstones are
+ * kept in per-chunk bitsets that are copied on write. The skill postings and the scored columns of a
+ * CandidateTable are appended to incrementally, and the whole log is compacted once too many slots are dead.
+ *
+ * A repository opened over a CandidateSnapshot takes its columns and postings from the snapshot's columns and
+ * decodes a candidate's CV only when it is read, like the snapshot itself. Emails of the snapshot's candidates are
+ * looked up through the snapshot's email index; only emails added later go into the email map.
+ */
+public final class CandidateRepository {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS; // Slots per chunk
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Writer-side state, guarded by "this". Arrays are shared with snapshots and only written past their bounds.
+    private Map<String, Integer> slotsByEmail = new ConcurrentHashMap<>(); // Live email -> slot, outside the base
+    private CV[][] chunks = new CV[16][];
+    private int[] liveBefore = new int[16]; // Live candidates in all chunks before chunk c
+    private long[][] deadBits = new long[16][]; // Tombstone bitset per chunk, null while the chunk has none
+    private SkillPostingLists postings = new SkillPostingLists();
+    private int[] years = new int[CHUNK_SIZE]; // Table columns by slot, grown by doubling
+    private long[][] skillWords = new long[0][];
+    private byte[] degreeLevels = new byte[CHUNK_SIZE];
+    private int[] graduationYears = new int[CHUNK_SIZE];
+    private CandidateSnapshot base; // Source of the CVs of slots below base.size() not decoded yet; null if none
+    private Object generation = new Object(); // Replaced when compaction renumbers the slots
+    private int slotCount;
+    private int liveCount;
+    private long version;
+
+    private volatile Snapshot current; // Latest published snapshot
+
+    // Creates an empty repository
+    public CandidateRepository() {
+        publish();
+    }
+
+    // Creates a repository holding the given candidates, in order
+    public CandidateRepository(Collection<CV> candidates) {
+        addAll(candidates);
+    }
+
+    // Creates a repository holding the snapshot's candidates, in order, from the snapshot's numeric columns without
+    // decoding any string. A candidate whose email already appeared earlier in the snapshot is left out, like a
+    // duplicate in an import.
+    public CandidateRepository(CandidateSnapshot snapshot) {
+        synchronized (this) {
+            load(snapshot);
+            for (int duplicate : snapshot.duplicateEmails()) {
+                kill(duplicate, null); // Keeps slot numbers equal to snapshot ordinals
+            }
+            publish();
+        }
+    }
+
+    // Fills the empty log with the snapshot's candidates as slots 0..n-1. Unlike appending them one by one, every
+    // column and posting list is allocated once at its final length.
+    private void load(CandidateSnapshot snapshot) {
+        int count = snapshot.size();
+        base = snapshot;
+
+        int capacity = Math.max(CHUNK_SIZE, Integer.highestOneBit(Math.max(count, 1)) * 2);
+        years = new int[capacity];
+        degreeLevels = new byte[capacity];
+        graduationYears = new int[capacity];
+        snapshot.copyYears(years);
+        snapshot.copyDegreeLevels(degreeLevels);
+        snapshot.copyDegreeYears(graduationYears);
+
+        // Size every posting list and skill word column before filling them
+        CandidateSnapshot.SkillLists skills = snapshot.allSkillIds();
+        int[] skillStart = skills.starts();
+        int[] skillIds = skills.ids();
+        int[] postingLengths = new int[64];
+        for (int i = 0; i < skillStart[count]; i++) {
+            int id = skillIds[i];
+            if (id >= postingLengths.length) {
+                postingLengths = Arrays.copyOf(postingLengths, Math.max(id + 1, postingLengths.length * 2));
+            }
+            postingLengths[id]++;
+        }
+        int words = 0;
+        for (int id = 0; id < postingLengths.length; id++) {
+            if (postingLengths[id] > 0) {
+                words = (id >>> 6) + 1;
+            }
+        }
+        skillWords = new long[words][capacity];
+        int[][] slotsBySkill = new int[postingLengths.length][];
+        int[] filled = new int[postingLengths.length];
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            for (int i = skillStart[ordinal]; i < skillStart[ordinal + 1]; i++) {
+                int id = skillIds[i];
+                skillWords[id >>> 6][ordinal] |= 1L << id;
+                if (slotsBySkill[id] == null) {
+                    slotsBySkill[id] = new int[postingLengths[id]];
+                }
+                slotsBySkill[id][filled[id]++] = ordinal;
+            }
+        }
+        postings.load(slotsBySkill);
+
+        int chunkCount = (count + CHUNK_MASK) >>> CHUNK_BITS;
+        chunks = new CV[Math.max(16, Integer.highestOneBit(Math.max(chunkCount, 1)) * 2)][];
+        liveBefore = new int[chunks.length];
+        deadBits = new long[chunks.length][];
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            chunks[chunk] = new CV[CHUNK_SIZE]; // Left null: the CVs are decoded from the snapshot when read
+            liveBefore[chunk] = chunk << CHUNK_BITS;
+        }
+        slotCount = count;
+        liveCount = count;
+    }
+
+    // Returns the latest consistent view of the library; never blocks, even while a write is in progress
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    // Version stamp that changes with every add, update and remove (e.g. for CachingMatchingService)
+    public long version() {
+        return current.version();
+    }
+
+    // Number of candidates currently in the library
+    public int size() {
+        return current.size();
+    }
+
+    // Finds the candidate with the given email in the latest snapshot
+    public CV find(String email) {
+        String normalized = normalizeEmail(email);
+        CV candidate = find(current, normalized);
+        if (candidate != null) {
+            return candidate;
+        }
+        // The email map is shared with the writer, which may already have moved or dropped the email for a
+        // snapshot not yet published. A miss is only final when the map and the snapshot are read together.
+        synchronized (this) {
+            return find(current, normalized);
+        }
+    }
+
+    // Looks the email up in the shared map, then in the base snapshot's email index; null unless the slot found
+    // is live in the snapshot and holds the email
+    private static CV find(Snapshot snapshot, String email) {
+        Integer slot = snapshot.slotsByEmail.get(email);
+        if (slot != null && snapshot.isLive(slot)) {
+            CV candidate = snapshot.slot(slot);
+            if (candidate.getEmail().equals(email)) {
+                return candidate;
+            }
+        }
+        if (snapshot.base != null) {
+            int ordinal = snapshot.base.ordinalOf(email); // Base slots are snapshot ordinals
+            if (ordinal >= 0 && snapshot.isLive(ordinal)) {
+                return snapshot.slot(ordinal);
+            }
+        }
+        return null;
+    }
+
+    // Adds a new candidate; emails identify candidates, so a duplicate email is rejected
+    public synchronized void add(CV candidate) {
+        append(candidate);
+        publish();
+    }
+
+    // Adds several candidates and publishes them together as one new version
+    public synchronized void addAll(Collection<CV> candidates) {
+        // Check the whole batch first so a duplicate cannot leave half of it appended
+        Set<String> emails = new HashSet<>();
+        for (CV candidate : candidates) {
+            if (slotOf(candidate.getEmail()) != null || !emails.add(candidate.getEmail())) {
+                throw new IllegalArgumentException("Candidate already exists: " + candidate.getEmail());
+            }
+        }
+        for (CV candidate : candidates) {
+            append(candidate);
+        }
+        publish();
+    }
+
+    // Replaces the candidate having the same email; returns false if there is none.
+    // The new revision is appended, so it moves to the end of the library order.
+    public synchronized boolean update(CV candidate) {
+        Integer slot = slotOf(candidate.getEmail());
+        if (slot == null) {
+            return false;
+        }
+        kill(slot, candidate.getEmail());
+        append(candidate);
+        compactIfNeeded();
+        publish();
+        return true;
+    }
+
+    // Removes the candidate with the given email; returns false if there is none
+    public synchronized boolean remove(String email) {
+        Integer slot = slotOf(normalizeEmail(email));
+        if (slot == null) {
+            return false;
+        }
+        kill(slot, normalizeEmail(email));
+        compactIfNeeded();
+        publish();
+        return true;
+    }
+
+    // Writes the candidate into the next free slot, the skill postings and the table columns
+    private void append(CV candidate) {
+        if (slotOf(candidate.getEmail()) != null) {
+            throw new IllegalArgumentException("Candidate already exists: " + candidate.getEmail());
+        }
+        slotsByEmail.put(candidate.getEmail(), slotCount);
+        appendSlot(candidate.skillIds(), candidate.getYearsExperience(), candidate.getHighestDegree(),
+                CandidateTable.highestDegreeYear(candidate), candidate);
+    }
+
+    // Live slot holding the email, or null. The base snapshot's candidates are found through its email index.
+    private Integer slotOf(String email) {
+        Integer slot = slotsByEmail.get(email);
+        if (slot == null && base != null) {
+            int ordinal = base.ordinalOf(email);
+            if (ordinal >= 0 && !isDead(ordinal)) {
+                slot = ordinal;
+            }
+        }
+        return slot;
+    }
+
+    private boolean isDead(int slot) {
+        long[] dead = deadBits[slot >>> CHUNK_BITS];
+        return dead != null && (dead[(slot & CHUNK_MASK) >>> 6] & (1L << slot)) != 0;
+    }
+
+    // Fills the next free slot; a null candidate is decoded from the base snapshot when it is read
+    private void appendSlot(int[] skillIds, int yearsExperience, DegreeLevel highest, int graduationYear,
+                            CV candidate) {
+        int chunk = slotCount >>> CHUNK_BITS;
+        if (chunk == chunks.length) {
+            int capacity = chunks.length * 2;
+            chunks = Arrays.copyOf(chunks, capacity);
+            liveBefore = Arrays.copyOf(liveBefore, capacity);
+            deadBits = Arrays.copyOf(deadBits, capacity);
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new CV[CHUNK_SIZE];
+            liveBefore[chunk] = liveCount;
+        }
+        chunks[chunk][slotCount & CHUNK_MASK] = candidate;
+        postings.add(slotCount, skillIds);
+        appendColumns(skillIds, yearsExperience, highest, graduationYear);
+        slotCount++;
+        liveCount++;
+    }
+
+    // Writes the slot's table columns. Published tables only read rows below their size, so the arrays are shared
+    // with them and only replaced, never changed below slotCount, when they have to grow.
+    private void appendColumns(int[] skillIds, int yearsExperience, DegreeLevel highest, int graduationYear) {
+        if (slotCount == years.length) {
+            int capacity = years.length * 2;
+            years = Arrays.copyOf(years, capacity);
+            degreeLevels = Arrays.copyOf(degreeLevels, capacity);
+            graduationYears = Arrays.copyOf(graduationYears, capacity);
+            long[][] grown = new long[skillWords.length][];
+            for (int w = 0; w < grown.length; w++) {
+                grown[w] = Arrays.copyOf(skillWords[w], capacity);
+            }
+            skillWords = grown;
+        }
+        if (skillIds.length > 0) {
+            int words = (skillIds[skillIds.length - 1] >>> 6) + 1; // Ids are sorted
+            if (words > skillWords.length) {
+                long[][] grown = Arrays.copyOf(skillWords, words);
+                for (int w = skillWords.length; w < words; w++) {
+                    grown[w] = new long[years.length];
+                }
+                skillWords = grown;
+            }
+        }
+        years[slotCount] = yearsExperience;
+        degreeLevels[slotCount] = (byte) highest.ordinal();
+        graduationYears[slotCount] = graduationYear;
+        for (int id : skillIds) {
+            skillWords[id >>> 6][slotCount] |= 1L << id;
+        }
+    }
+
+    // Marks a slot dead, copying the arrays published snapshots might still be reading; the email is null for a
+    // base snapshot's duplicate, which never had a map entry
+    private void kill(int slot, String email) {
+        int chunk = slot >>> CHUNK_BITS;
+        long[] bits = deadBits[chunk] == null ? new long[CHUNK_SIZE / 64] : deadBits[chunk].clone();
+        bits[(slot & CHUNK_MASK) >>> 6] |= 1L << slot;
+        deadBits = deadBits.clone();
+        deadBits[chunk] = bits;
+
+        liveBefore = liveBefore.clone();
+        for (int c = chunk + 1; c < liveBefore.length; c++) {
+            liveBefore[c]--;
+        }
+        if (email != null) {
+            slotsByEmail.remove(email, slot);
+        }
+        liveCount--;
+    }
+
+    // Rewrites the log without tombstones once they make up a quarter of it. Live candidates of a base snapshot
+    // are decoded here, since their new slots no longer match the snapshot's ordinals.
+    private void compactIfNeeded() {
+        int dead = slotCount - liveCount;
+        if (dead < CHUNK_SIZE || dead < slotCount / 4) {
+            return;
+        }
+        Snapshot live = new Snapshot(this);
+        chunks = new CV[Math.max(16, (liveCount >>> CHUNK_BITS) + 1)][];
+        liveBefore = new int[chunks.length];
+        deadBits = new long[chunks.length][];
+        postings = new SkillPostingLists(); // Old snapshots keep reading the previous generation
+        int capacity = Math.max(CHUNK_SIZE, Integer.highestOneBit(liveCount) * 2);
+        years = new int[capacity];
+        skillWords = new long[0][];
+        degreeLevels = new byte[capacity];
+        graduationYears = new int[capacity];
+        base = null;
+        generation = new Object();
+        slotsByEmail = new ConcurrentHashMap<>();
+        slotCount = 0;
+        liveCount = 0;
+        for (CV candidate : live) {
+            append(candidate);
+        }
+    }
+
+    // Publishes the writer state as a new immutable snapshot
+    private void publish() {
+        version++;
+        current = new Snapshot(this);
+    }
+
+    private static String normalizeEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase();
+    }
+
+    // Consistent, read-only view of the library at one version. Safe to share between threads.
+    public static final class Snapshot extends AbstractList<CV> implements RandomAccess, SkillPostings {
+        private final long version;
+        private final CV[][] chunks;
+        private final int[] liveBefore;
+        private final long[][] deadBits;
+        private final int slotCount;
+        private final int liveCount;
+        private final SkillPostingLists postings;
+        private final Map<String, Integer> slotsByEmail; // Email lookup of this snapshot's generation
+        private final CandidateSnapshot base;
+        private final Object generation;
+        private final List<CV> slotView = new SlotView();
+        private final CandidateTable table; // Columns by slot, shared with the writer
+
+        // Captures the writer state; called with the repository's lock held
+        private Snapshot(CandidateRepository repository) {
+            this.version = repository.version;
+            this.chunks = repository.chunks;
+            this.liveBefore = repository.liveBefore;
+            this.deadBits = repository.deadBits;
+            this.slotCount = repository.slotCount;
+            this.liveCount = repository.liveCount;
+            this.postings = repository.postings;
+            this.slotsByEmail = repository.slotsByEmail;
+            this.base = repository.base;
+            this.generation = repository.generation;
+            this.table = new CandidateTable(slotView, slotCount, liveCount == slotCount ? null : this::isLive,
+                    repository.years, repository.skillWords, repository.degreeLevels, repository.graduationYears);
+        }
+
+        // Version of the repository this snapshot was taken at
+        public long version() {
+            return version;
+        }
+
+        // Scored columns with one row per slot, dead ones included; maintained by the repository as candidates
+        // are added, so getting it costs nothing. Rows resolve through ordinals().
+        public CandidateTable table() {
+            return table;
+        }
+
+        // Identity shared by every snapshot whose slots hold the same candidates, up to the smaller slot count.
+        // Compaction renumbers the slots and starts a new generation, so indexes over slots built for one
+        // snapshot stay valid for later snapshots of the same generation.
+        Object generation() {
+            return generation;
+        }
+
+        @Override
+        public int size() {
+            return liveCount;
+        }
+
+        // Returns the index-th live candidate, in library order
+        @Override
+        public CV get(int index) {
+            if (index < 0 || index >= liveCount) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of " + liveCount);
+            }
+            if (liveCount == slotCount) {
+                return slot(index); // No tombstones: slots are ordinals
+            }
+
+            // Find the last chunk with fewer live candidates before it than the index
+            int low = 0;
+            int high = (slotCount - 1) >>> CHUNK_BITS;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (liveBefore[mid] <= index) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            int rank = index - liveBefore[low];
+            long[] dead = deadBits[low];
+            if (dead == null) {
+                return slot((low << CHUNK_BITS) + rank);
+            }
+
+            // Select the rank-th slot whose tombstone bit is clear
+            for (int word = 0; word < dead.length; word++) {
+                long liveBits = ~dead[word];
+                int live = Long.bitCount(liveBits);
+                if (rank < live) {
+                    for (int i = 0; i < rank; i++) {
+                        liveBits &= liveBits - 1; // Drop the lowest live bit
+                    }
+                    return slot((low << CHUNK_BITS) + (word << 6) + Long.numberOfTrailingZeros(liveBits));
+                }
+                rank -= live;
+            }
+            throw new IllegalStateException("Corrupt tombstone bitset");
+        }
+
+        // Walks the slots in order, skipping tombstones, without the binary search get() needs
+        @Override
+        public Iterator<CV> iterator() {
+            return new Iterator<>() {
+                private int slot = nextLive(0);
+
+                @Override
+                public boolean hasNext() {
+                    return slot < slotCount;
+                }
+
+                @Override
+                public CV next() {
+                    if (slot >= slotCount) {
+                        throw new NoSuchElementException();
+                    }
+                    CV candidate = slot(slot);
+                    slot = nextLive(slot + 1);
+                    return candidate;
+                }
+            };
+        }
+
+        // Ordinal space of countMatches: slot numbers, which sort the same way as library order
+        @Override
+        public List<CV> ordinals() {
+            return slotView;
+        }
+
+        // Live slots having the skill, ascending, in a fresh array
+        @Override
+        public int[] posting(int skillId) {
+            SkillPostingLists.Posting posting = postings.posting(skillId);
+            if (posting == null) {
+                return new int[0];
+            }
+            int length = posting.length; // Read the length first; the array is then at least this long
+            int[] slots = posting.slots;
+            int[] live = new int[length];
+            int size = 0;
+            for (int i = 0; i < length && slots[i] < slotCount; i++) { // Slots are appended in increasing order
+                if (isLive(slots[i])) {
+                    live[size++] = slots[i];
+                }
+            }
+            return size == length ? live : Arrays.copyOf(live, size);
+        }
+
+        // Merges the incrementally maintained postings, ignoring dead slots and slots added after this snapshot
+        @Override
+        public int countMatches(List<String> skills, SkillIndex.MatchConsumer consumer) {
+            int[][] lists = new int[skills.size()][];
+            int[] lengths = new int[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                SkillPostingLists.Posting posting = postings.posting(SkillDictionary.global().lookup(skills.get(i)));
+                if (posting == null) {
+                    lists[i] = new int[0];
+                } else {
+                    lengths[i] = posting.length; // Read the length first; the array is then at least this long
+                    lists[i] = posting.slots;
+                }
+            }
+            int[] hits = new int[1];
+            SkillIndex.merge(lists, lengths, (slot, matchedCount) -> {
+                if (slot < slotCount && isLive(slot)) {
+                    consumer.accept(slot, matchedCount);
+                    hits[0]++;
+                }
+            });
+            return hits[0];
+        }
+
+        // Whether the slot holds a live candidate in this snapshot
+        boolean isLive(int slot) {
+            if (slot < 0 || slot >= slotCount) {
+                return false;
+            }
+            long[] dead = deadBits[slot >>> CHUNK_BITS];
+            return dead == null || (dead[(slot & CHUNK_MASK) >>> 6] & (1L << slot)) == 0;
+        }
+
+        // Candidate stored in the slot (dead slots still hold their last candidate)
+        CV slot(int slot) {
+            CV candidate = chunks[slot >>> CHUNK_BITS][slot & CHUNK_MASK];
+            return candidate != null ? candidate : base.candidate(slot); // The snapshot decodes each CV once
+        }
+
+        private int nextLive(int slot) {
+            while (slot < slotCount && !isLive(slot)) {
+                slot++;
+            }
+            return slot;
+        }
+
+        // List view indexed by slot number, used to resolve postings hits
+        private final class SlotView extends AbstractList<CV> implements RandomAccess {
+            @Override
+            public CV get(int slot) {
+                if (slot < 0 || slot >= slotCount) {
+                    throw new IndexOutOfBoundsException("Slot " + slot + " out of " + slotCount);
+                }
+                return slot(slot);
+            }
+
+            @Override
+            public int size() {
+                return slotCount;
+            }
+        }
+    }
+
+    // Append-only skill postings over slots. A single writer appends; readers see a consistent prefix of each list.
+    static final class SkillPostingLists {
+        private volatile Posting[] postings = new Posting[64]; // Skill dictionary id -> posting
+
+        // Posting list of one skill; slots are appended in increasing order
+        static final class Posting {
+            volatile int[] slots = new int[8];
+            volatile int length; // Written after the slot itself, so readers never see an unwritten entry
+        }
+
+        // Replaces every posting list with the given ascending slots, indexed by skill id; only called before the
+        // lists are published
+        void load(int[][] slotsBySkill) {
+            Posting[] loaded = new Posting[Math.max(64, slotsBySkill.length)];
+            for (int id = 0; id < slotsBySkill.length; id++) {
+                if (slotsBySkill[id] != null) {
+                    loaded[id] = new Posting();
+                    loaded[id].slots = slotsBySkill[id];
+                    loaded[id].length = slotsBySkill[id].length;
+                }
+            }
+            postings = loaded;
+        }
+
+        Posting posting(int skillId) {
+            Posting[] current = postings;
+            return skillId >= 0 && skillId < current.length ? current[skillId] : null;
+        }
+
+        void add(int slot, int[] skillIds) {
+            for (int id : skillIds) {
+                Posting[] current = postings;
+                if (id >= current.length) {
+                    current = Arrays.copyOf(current, Math.max(id + 1, current.length * 2));
+                }
+                Posting posting = current[id];
+                if (posting == null) {
+                    posting = new Posting();
+                    current[id] = posting;
+                    postings = current; // Volatile write publishes a new array or a new posting
+                }
+
+                int length = posting.length;
+                int[] slots = posting.slots;
+                if (length == slots.length) {
+                    slots = Arrays.copyOf(slots, length * 2);
+                    posting.slots = slots;
+                }
+                slots[length] = slot;
+                posting.length = length + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,579 @@
+package com.sample.smartcv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/*
+ * Binary, column-oriented snapshot of a candidate library.
+ *
+ * Layout (all numbers big-endian):
+ *   header   : magic "SCVS", format version, candidate count, section count,
+ *              then one (offset, length) pair of longs per section
+ *   sections : skill vocabulary, names, emails, skill ids, years of experience, education,
+ *              highest degree levels, highest degree years, email index
+ *
+ * String columns are stored as n+1 int offsets followed by the UTF-8 bytes. Every section is mapped
+ * read-only on open, and CV objects are only decoded when a candidate is actually requested.
+ *
+ * The last three sections are derived from the others when the file is written, so a CandidateRepository can be
+ * opened over the snapshot without decoding a single string: one byte per candidate for the DegreeLevel ordinal of
+ * the highest degree, one int for that degree's graduation year, and one long per candidate packing the email's
+ * String.hashCode into the high and the ordinal into the low half, sorted, for looking emails up.
+ */
+public final class CandidateSnapshot {
+    private static final int MAGIC = 0x53435653; // "SCVS"
+    private static final int VERSION = 2;
+
+    // Section numbers, in the order they appear in the file
+    private static final int SKILL_VOCABULARY = 0;
+    private static final int NAMES = 1;
+    private static final int EMAILS = 2;
+    private static final int SKILLS = 3;
+    private static final int YEARS = 4;
+    private static final int EDUCATION = 5;
+    private static final int DEGREE_LEVELS = 6;
+    private static final int DEGREE_YEARS = 7;
+    private static final int EMAIL_INDEX = 8;
+    private static final int SECTION_COUNT = 9;
+
+    private static final int HEADER_SIZE = 16 + SECTION_COUNT * 16;
+
+    private static final DegreeLevel[] LEVELS = DegreeLevel.values(); // By ordinal, as stored
+
+    private final int size; // Number of candidates in the snapshot
+    private final int[] globalSkillIds; // Snapshot-local skill id -> SkillDictionary id
+    private final StringColumn names;
+    private final StringColumn emails;
+    private final ByteBuffer skills; // count+1 offsets into the id list, then the snapshot-local skill ids
+    private final ByteBuffer years; // One int per candidate
+    private final ByteBuffer educationOffsets; // count+1 offsets into the education entries
+    private final ByteBuffer graduationYears; // One int per education entry
+    private final StringColumn institutions;
+    private final StringColumn degrees;
+    private final StringColumn fields;
+    private final ByteBuffer degreeLevels; // Highest DegreeLevel ordinal per candidate
+    private final ByteBuffer degreeYears; // Graduation year of the highest degree per candidate
+    private final ByteBuffer emailIndex; // (email hash << 32 | ordinal) per candidate, ascending
+    private final AtomicReferenceArray<CV> decoded; // CVs decoded so far, filled on demand
+    private final List<CV> list = new CandidateList(); // The one list view, so services can recognize it
+
+    private CandidateSnapshot(int size, ByteBuffer[] sections) {
+        this.size = size;
+
+        // Translate the snapshot's skill vocabulary into ids of the running dictionary
+        ByteBuffer vocabulary = sections[SKILL_VOCABULARY];
+        int vocabularySize = vocabulary.getInt(0);
+        StringColumn skillNames = new StringColumn(vocabulary, 4, vocabularySize);
+        this.globalSkillIds = new int[vocabularySize];
+        for (int i = 0; i < vocabularySize; i++) {
+            globalSkillIds[i] = SkillDictionary.global().intern(skillNames.get(i));
+        }
+
+        this.names = new StringColumn(sections[NAMES], 0, size);
+        this.emails = new StringColumn(sections[EMAILS], 0, size);
+        this.skills = sections[SKILLS];
+        this.years = sections[YEARS];
+
+        // Education: entry offsets, entry count, graduation years, then institution, degree and field columns
+        ByteBuffer education = sections[EDUCATION];
+        int entries = education.getInt(4 * (size + 1));
+        int position = 4 * (size + 2);
+        this.educationOffsets = education.slice(0, 4 * (size + 1));
+        this.graduationYears = education.slice(position, 4 * entries);
+        position += 4 * entries;
+        this.institutions = new StringColumn(education, position, entries);
+        this.degrees = new StringColumn(education, institutions.end(), entries);
+        this.fields = new StringColumn(education, degrees.end(), entries);
+
+        this.degreeLevels = sections[DEGREE_LEVELS];
+        this.degreeYears = sections[DEGREE_YEARS];
+        this.emailIndex = sections[EMAIL_INDEX];
+        this.decoded = new AtomicReferenceArray<>(size);
+    }
+
+    // Writes the candidates into a snapshot file, replacing any existing file
+    public static void write(List<CV> candidates, Path file) throws IOException {
+        int count = candidates.size();
+
+        // Collect the skill vocabulary in first-seen order and remap ids into it
+        SkillDictionary dictionary = SkillDictionary.global();
+        int[] localIds = new int[dictionary.size()];
+        Arrays.fill(localIds, -1);
+        List<String> vocabulary = new ArrayList<>();
+        for (CV candidate : candidates) {
+            for (int id : candidate.skillIds()) {
+                if (id >= localIds.length) {
+                    int previous = localIds.length;
+                    localIds = Arrays.copyOf(localIds, Math.max(id + 1, previous * 2));
+                    Arrays.fill(localIds, previous, localIds.length, -1);
+                }
+                if (localIds[id] < 0) {
+                    localIds[id] = vocabulary.size();
+                    vocabulary.add(dictionary.skill(id));
+                }
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             SectionWriter out = new SectionWriter(channel, HEADER_SIZE)) {
+            long[] offsets = new long[SECTION_COUNT];
+            long[] lengths = new long[SECTION_COUNT];
+
+            offsets[SKILL_VOCABULARY] = out.position();
+            out.putInt(vocabulary.size());
+            out.putStrings(vocabulary, Function.identity());
+            lengths[SKILL_VOCABULARY] = out.position() - offsets[SKILL_VOCABULARY];
+
+            offsets[NAMES] = out.position();
+            out.putStrings(candidates, CV::getName);
+            lengths[NAMES] = out.position() - offsets[NAMES];
+
+            offsets[EMAILS] = out.position();
+            out.putStrings(candidates, CV::getEmail);
+            lengths[EMAILS] = out.position() - offsets[EMAILS];
+
+            offsets[SKILLS] = out.position();
+            int skillOffset = 0;
+            out.putInt(0);
+            for (CV candidate : candidates) {
+                skillOffset += candidate.skillIds().length;
+                out.putInt(skillOffset);
+            }
+            for (CV candidate : candidates) {
+                for (int id : candidate.skillIds()) {
+                    out.putInt(localIds[id]);
+                }
+            }
+            lengths[SKILLS] = out.position() - offsets[SKILLS];
+
+            offsets[YEARS] = out.position();
+            for (CV candidate : candidates) {
+                out.putInt(candidate.getYearsExperience());
+            }
+            lengths[YEARS] = out.position() - offsets[YEARS];
+
+            offsets[EDUCATION] = out.position();
+            List<CV.Education> entries = new ArrayList<>();
+            out.putInt(0);
+            for (CV candidate : candidates) {
+                entries.addAll(candidate.getEducationView());
+                out.putInt(entries.size());
+            }
+            out.putInt(entries.size());
+            for (CV.Education entry : entries) {
+                out.putInt(entry.graduationYear());
+            }
+            out.putStrings(entries, CV.Education::institution);
+            out.putStrings(entries, CV.Education::degree);
+            out.putStrings(entries, CV.Education::field);
+            lengths[EDUCATION] = out.position() - offsets[EDUCATION];
+
+            offsets[DEGREE_LEVELS] = out.position();
+            for (CV candidate : candidates) {
+                out.putByte((byte) candidate.getHighestDegree().ordinal());
+            }
+            lengths[DEGREE_LEVELS] = out.position() - offsets[DEGREE_LEVELS];
+
+            offsets[DEGREE_YEARS] = out.position();
+            for (CV candidate : candidates) {
+                out.putInt(CandidateTable.highestDegreeYear(candidate));
+            }
+            lengths[DEGREE_YEARS] = out.position() - offsets[DEGREE_YEARS];
+
+            offsets[EMAIL_INDEX] = out.position();
+            long[] index = new long[count];
+            for (int i = 0; i < count; i++) {
+                index[i] = emailKey(candidates.get(i).getEmail(), i);
+            }
+            Arrays.sort(index); // By hash, then by ordinal
+            for (long key : index) {
+                out.putLong(key);
+            }
+            lengths[EMAIL_INDEX] = out.position() - offsets[EMAIL_INDEX];
+
+            // Go back and fill in the header now that every section's position is known
+            out.flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(SECTION_COUNT);
+            for (int i = 0; i < SECTION_COUNT; i++) {
+                header.putLong(offsets[i]).putLong(lengths[i]);
+            }
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    // Opens a snapshot file; every section is mapped read-only and nothing is decoded yet
+    public static CandidateSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a candidate snapshot: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a candidate snapshot: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + file);
+            }
+            int size = header.getInt();
+            int sectionCount = header.getInt();
+            if (sectionCount != SECTION_COUNT) {
+                throw new IOException("Corrupt snapshot header in " + file);
+            }
+
+            // The mappings stay valid after the channel is closed
+            ByteBuffer[] sections = new ByteBuffer[SECTION_COUNT];
+            for (int i = 0; i < SECTION_COUNT; i++) {
+                long offset = header.getLong();
+                long length = header.getLong();
+                if (offset < HEADER_SIZE || length > Integer.MAX_VALUE || offset + length > channel.size()) {
+                    throw new IOException("Corrupt snapshot section " + i + " in " + file);
+                }
+                sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            }
+            return new CandidateSnapshot(size, sections);
+        }
+    }
+
+    // Number of candidates in the snapshot
+    public int size() {
+        return size;
+    }
+
+    // Candidate's name, read straight from the names column
+    public String name(int ordinal) {
+        return names.get(checkIndex(ordinal));
+    }
+
+    // Candidate's email, read straight from the emails column
+    public String email(int ordinal) {
+        return emails.get(checkIndex(ordinal));
+    }
+
+    // Candidate's years of experience, read straight from the years column
+    public int yearsExperience(int ordinal) {
+        return years.getInt(4 * checkIndex(ordinal));
+    }
+
+    // Candidate's skills as sorted SkillDictionary ids
+    public int[] skillIds(int ordinal) {
+        checkIndex(ordinal);
+        int from = skills.getInt(4 * ordinal);
+        int to = skills.getInt(4 * (ordinal + 1));
+        int idsStart = 4 * (size + 1);
+        int[] ids = new int[to - from];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = globalSkillIds[skills.getInt(idsStart + 4 * (from + i))];
+        }
+        int unique = sortUnique(ids, 0, ids.length);
+        return unique == ids.length ? ids : Arrays.copyOf(ids, unique);
+    }
+
+    // Skill ids of every candidate at once, as skillIds(int) returns them; for loading a whole snapshot
+    SkillLists allSkillIds() {
+        IntBuffer column = skills.asIntBuffer();
+        int[] starts = new int[size + 1];
+        column.get(0, starts, 0, size + 1);
+        int[] ids = new int[starts[size]];
+        column.get(size + 1, ids, 0, ids.length);
+        // Translate in place; dropped repeats can only move the following ids towards the front
+        int end = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            int from = starts[ordinal];
+            int to = starts[ordinal + 1];
+            int start = end;
+            for (int i = from; i < to; i++) {
+                ids[end++] = globalSkillIds[ids[i]];
+            }
+            starts[ordinal] = start;
+            end = start + sortUnique(ids, start, end);
+        }
+        starts[size] = end;
+        return new SkillLists(starts, ids);
+    }
+
+    // Copies the years column into the first size() entries of the array
+    void copyYears(int[] into) {
+        years.asIntBuffer().get(0, into, 0, size);
+    }
+
+    // Copies the highest degree levels, as DegreeLevel ordinals, into the first size() entries of the array
+    void copyDegreeLevels(byte[] into) {
+        degreeLevels.get(0, into, 0, size);
+    }
+
+    // Copies the highest degree years into the first size() entries of the array
+    void copyDegreeYears(int[] into) {
+        degreeYears.asIntBuffer().get(0, into, 0, size);
+    }
+
+    // Sorts ids[from, to) and drops repeats, which skills stored as two synonyms of one canonical skill now are;
+    // returns the number of unique ids, which start at from
+    private static int sortUnique(int[] ids, int from, int to) {
+        boolean ascending = true;
+        for (int i = from + 1; i < to && ascending; i++) {
+            ascending = ids[i - 1] < ids[i];
+        }
+        if (ascending) {
+            return to - from; // Nothing to sort or drop
+        }
+        Arrays.sort(ids, from, to);
+        int unique = from;
+        for (int i = from; i < to; i++) {
+            if (unique == from || ids[unique - 1] != ids[i]) {
+                ids[unique++] = ids[i];
+            }
+        }
+        return unique - from;
+    }
+
+    // Decodes the full CV of a candidate; each candidate is decoded at most once
+    public CV candidate(int ordinal) {
+        CV cv = decoded.get(checkIndex(ordinal));
+        if (cv == null) {
+            cv = decode(ordinal);
+            if (!decoded.compareAndSet(ordinal, null, cv)) {
+                cv = decoded.get(ordinal); // Another thread decoded it first; keep a single instance
+            }
+        }
+        return cv;
+    }
+
+    // Highest degree of a candidate, read from the precomputed degree level column
+    public DegreeLevel highestDegree(int ordinal) {
+        return LEVELS[degreeLevels.get(checkIndex(ordinal))];
+    }
+
+    // Latest graduation year among the entries at the candidate's highest degree; 0 without a degree
+    public int highestDegreeYear(int ordinal) {
+        return degreeYears.getInt(4 * checkIndex(ordinal));
+    }
+
+    // Smallest ordinal of a candidate with the given normalized email, or -1. Only candidates whose email has the
+    // same hash are decoded, to rule out a collision.
+    public int ordinalOf(String email) {
+        int hash = email.hashCode();
+        int low = 0;
+        int high = size;
+        long first = emailKey(email, 0);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (emailIndex.getLong(8 * mid) < first) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < size; i++) {
+            long key = emailIndex.getLong(8 * i);
+            if ((int) (key >>> 32) != hash) {
+                break;
+            }
+            if (emails.get((int) key).equals(email)) {
+                return (int) key;
+            }
+        }
+        return -1;
+    }
+
+    // Ordinals whose email already belongs to a candidate with a smaller ordinal, ascending. Walks the email index
+    // and only decodes emails whose hashes collide.
+    public int[] duplicateEmails() {
+        long[] keys = new long[size];
+        emailIndex.asLongBuffer().get(0, keys);
+        int[] duplicates = new int[0];
+        int count = 0;
+        for (int from = 0, to; from < size; from = to) {
+            long hash = keys[from] >>> 32;
+            to = from + 1;
+            while (to < size && keys[to] >>> 32 == hash) {
+                to++;
+            }
+            // Within a run of equal hashes the ordinals ascend, so each email's first entry is the one kept
+            for (int i = from + 1; i < to; i++) {
+                String email = emails.get((int) keys[i]);
+                for (int j = from; j < i; j++) {
+                    if (emails.get((int) keys[j]).equals(email)) {
+                        if (count == duplicates.length) {
+                            duplicates = Arrays.copyOf(duplicates, Math.max(8, count * 2));
+                        }
+                        duplicates[count++] = (int) keys[i];
+                        break;
+                    }
+                }
+            }
+        }
+        duplicates = Arrays.copyOf(duplicates, count);
+        Arrays.sort(duplicates);
+        return duplicates;
+    }
+
+    // The snapshot as a read-only list that decodes candidates on access; always the same instance
+    public List<CV> asList() {
+        return list;
+    }
+
+    // The snapshot behind a list returned by asList(), or null for any other list
+    static CandidateSnapshot backing(List<CV> candidates) {
+        return candidates instanceof CandidateList view ? view.snapshot() : null;
+    }
+
+    // Builds the CV object from the columns
+    private CV decode(int ordinal) {
+        Set<String> skillNames = SkillDictionary.global().decode(skillIds(ordinal)); // Already a fresh HashSet
+        List<CV.Education> education = new ArrayList<>();
+        int from = educationOffsets.getInt(4 * ordinal);
+        int to = educationOffsets.getInt(4 * (ordinal + 1));
+        for (int i = from; i < to; i++) {
+            education.add(new CV.Education(institutions.get(i), degrees.get(i), fields.get(i),
+                    graduationYears.getInt(4 * i)));
+        }
+        return new CV(names.get(ordinal), emails.get(ordinal), skillNames,
+                years.getInt(4 * ordinal), education);
+    }
+
+    // Entry of the email index: the hash in the high half, so the index sorts by hash first
+    private static long emailKey(String email, int ordinal) {
+        return (long) email.hashCode() << 32 | ordinal;
+    }
+
+    private int checkIndex(int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IndexOutOfBoundsException("Candidate " + ordinal + " out of " + size);
+        }
+        return ordinal;
+    }
+
+    // Skill ids of all candidates in one array: candidate i's are ids[starts[i]] up to ids[starts[i + 1]]
+    record SkillLists(int[] starts, int[] ids) {}
+
+    // List view over the snapshot; get() decodes lazily
+    private final class CandidateList extends AbstractList<CV> implements RandomAccess {
+        CandidateSnapshot snapshot() {
+            return CandidateSnapshot.this;
+        }
+
+        @Override
+        public CV get(int index) {
+            return candidate(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // Column of strings stored as n+1 int offsets followed by UTF-8 bytes
+    private static final class StringColumn {
+        private final ByteBuffer buffer;
+        private final int offsetsStart; // Position of the first offset
+        private final int bytesStart; // Position of the first string byte
+        private final int count;
+
+        StringColumn(ByteBuffer buffer, int position, int count) {
+            this.buffer = buffer;
+            this.offsetsStart = position;
+            this.bytesStart = position + 4 * (count + 1);
+            this.count = count;
+        }
+
+        String get(int index) {
+            int from = buffer.getInt(offsetsStart + 4 * index);
+            int to = buffer.getInt(offsetsStart + 4 * (index + 1));
+            byte[] bytes = new byte[to - from];
+            buffer.get(bytesStart + from, bytes); // Absolute read, safe to share between threads
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // Position right after the last byte of the column
+        int end() {
+            return bytesStart + buffer.getInt(offsetsStart + 4 * count);
+        }
+    }
+
+    // Buffered sequential writer over the file channel that tracks the file position
+    private static final class SectionWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        private long position; // File position of the next byte written
+
+        SectionWriter(FileChannel channel, long start) {
+            this.channel = channel;
+            this.position = start;
+        }
+
+        long position() {
+            return position + buffer.position();
+        }
+
+        void putInt(int value) throws IOException {
+            if (buffer.remaining() < 4) flush();
+            buffer.putInt(value);
+        }
+
+        void putByte(byte value) throws IOException {
+            if (!buffer.hasRemaining()) flush();
+            buffer.put(value);
+        }
+
+        void putLong(long value) throws IOException {
+            if (buffer.remaining() < 8) flush();
+            buffer.putLong(value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) flush();
+                int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+            }
+        }
+
+        // Writes a string column: offsets first, so the strings are encoded twice instead of being held in memory
+        <T> void putStrings(List<T> items, Function<T, String> value) throws IOException {
+            int offset = 0;
+            putInt(0);
+            for (T item : items) {
+                offset += value.apply(item).getBytes(StandardCharsets.UTF_8).length;
+                putInt(offset);
+            }
+            for (T item : items) {
+                putBytes(value.apply(item).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.sample.smartcv;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+
+// Struct-of-arrays copy of a candidate list: one primitive column per scored attribute, so a scan reads
+// contiguous memory instead of following pointers from each CV. Rows are in the order of the list. A
+// CandidateRepository snapshot's table has one row per slot instead, including the dead ones.
+public final class CandidateTable {
+    private final List<CV> candidates; // Source list; row i is candidates.get(i)
+    private final int size; // Number of rows; the column arrays may be longer
+    private final IntPredicate live; // Whether a row holds a live candidate; null when every row does
+    private final int[] years; // Years of experience per row
+    private final long[][] skillWords; // skillWords[w][i] is word w of the skill bitset of row i
+    private final byte[] degreeLevels; // Ordinal of the highest DegreeLevel per row
+    private final int[] graduationYears; // Graduation year of the highest degree per row; 0 without a degree
+
+    private CandidateTable(List<CV> candidates, int[] years, long[][] skillWords, byte[] degreeLevels,
+                           int[] graduationYears) {
+        this(candidates, years.length, null, years, skillWords, degreeLevels, graduationYears);
+    }
+
+    // View over columns appended to in place, as kept by CandidateRepository: rows past size are ignored
+    CandidateTable(List<CV> candidates, int size, IntPredicate live, int[] years, long[][] skillWords,
+                   byte[] degreeLevels, int[] graduationYears) {
+        this.candidates = candidates;
+        this.size = size;
+        this.live = live;
+        this.years = years;
+        this.skillWords = skillWords;
+        this.degreeLevels = degreeLevels;
+        this.graduationYears = graduationYears;
+    }
+
+    // Copies the scored attributes of every candidate into columns; a snapshot's list is read from its columns
+    public static CandidateTable of(List<CV> candidates) {
+        CandidateSnapshot snapshot = CandidateSnapshot.backing(candidates);
+        if (snapshot != null) {
+            return of(snapshot);
+        }
+        int size = candidates.size();
+        int[] years = new int[size];
+        byte[] degreeLevels = new byte[size];
+        int[] graduationYears = new int[size];
+        int[][] ids = new int[size][];
+        for (int i = 0; i < size; i++) {
+            CV candidate = candidates.get(i);
+            years[i] = candidate.getYearsExperience();
+            degreeLevels[i] = (byte) candidate.getHighestDegree().ordinal();
+            graduationYears[i] = highestDegreeYear(candidate);
+            ids[i] = candidate.skillIds();
+        }
+        return new CandidateTable(candidates, years, skillWords(ids), degreeLevels, graduationYears);
+    }
+
+    // Copies the columns of a snapshot without decoding any CV; rows are the snapshot's ordinals
+    public static CandidateTable of(CandidateSnapshot snapshot) {
+        int size = snapshot.size();
+        int[] years = new int[size];
+        byte[] degreeLevels = new byte[size];
+        int[] graduationYears = new int[size];
+        int[][] ids = new int[size][];
+        for (int i = 0; i < size; i++) {
+            years[i] = snapshot.yearsExperience(i);
+            degreeLevels[i] = (byte) snapshot.highestDegree(i).ordinal();
+            graduationYears[i] = snapshot.highestDegreeYear(i);
+            ids[i] = snapshot.skillIds(i);
+        }
+        return new CandidateTable(snapshot.asList(), years, skillWords(ids), degreeLevels, graduationYears);
+    }
+
+    // One column per 64 skill ids; rows without a skill in that range keep a zero word
+    private static long[][] skillWords(int[][] ids) {
+        int maxId = -1;
+        for (int[] rowIds : ids) {
+            if (rowIds.length > 0) {
+                maxId = Math.max(maxId, rowIds[rowIds.length - 1]); // Ids are sorted
+            }
+        }
+        long[][] skillWords = new long[maxId < 0 ? 0 : (maxId >>> 6) + 1][ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            for (int id : ids[i]) {
+                skillWords[id >>> 6][i] |= 1L << id;
+            }
+        }
+        return skillWords;
+    }
+
+    // Latest graduation year among the entries at the candidate's highest level; 0 without a degree
+    static int highestDegreeYear(CV candidate) {
+        DegreeLevel highest = candidate.getHighestDegree();
+        int year = 0;
+        if (highest == DegreeLevel.NONE) {
+            return year;
+        }
+        for (CV.Education entry : candidate.getEducationView()) {
+            if (DegreeLevel.of(entry.degree()) == highest) {
+                year = Math.max(year, entry.graduationYear());
+            }
+        }
+        return year;
+    }
+
+    // Number of rows
+    public int size() {
+        return size;
+    }
+
+    // The list resolving row numbers: the list the table was built from, or a repository snapshot's slots
+    public List<CV> getCandidates() {
+        return candidates;
+    }
+
+    // Whether the row holds a live candidate; only rows of a repository snapshot can be dead
+    public boolean isLive(int row) {
+        return live == null || live.test(row);
+    }
+
+    // Whether any row is dead, so scans have to check isLive
+    public boolean hasDeadRows() {
+        return live != null;
+    }
+
+    // Years of experience of a row
+    public int yearsExperience(int row) {
+        return years[row];
+    }
+
+    // Highest degree of a row
+    public DegreeLevel degreeLevel(int row) {
+        return DegreeLevel.values()[degreeLevels[row]];
+    }
+
+    // Graduation year of the highest degree of a row; 0 without a degree
+    public int graduationYear(int row) {
+        return graduationYears[row];
+    }
+
+    // Direct column access for scoring kernels; callers must not modify the arrays
+    int[] years() {
+        return years;
+    }
+
+    long[][] skillWords() {
+        return skillWords;
+    }
+
+    byte[] degreeLevels() {
+        return degreeLevels;
+    }
+}
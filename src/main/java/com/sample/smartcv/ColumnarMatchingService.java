@@ -0,0 +1,102 @@
+package com.sample.smartcv;
+
+import java.util.List;
+import java.util.Objects;
+
+public class ColumnarMatchingService implements MatchingService {
+    private final ScoringKernel kernel; // Vector or scalar kernel scoring whole columns
+    private volatile CandidateTable table; // Table over the most recently queried candidate list
+
+    // Creates a service using the Vector API when it is enabled, building its table on the first query
+    public ColumnarMatchingService() {
+        this.kernel = ScoringKernel.preferred();
+    }
+
+    // Creates a service with a table built up front for the given candidate library
+    public ColumnarMatchingService(List<CV> library) {
+        this();
+        this.table = CandidateTable.of(library);
+    }
+
+    // Creates a service with an explicit kernel, e.g. to compare the scalar and vector kernels
+    ColumnarMatchingService(ScoringKernel kernel) {
+        this.kernel = Objects.requireNonNull(kernel);
+    }
+
+    // Scores every candidate with the kernel, then ranks them in the same order as WeightedMatchingService
+    @Override
+    public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job) {
+        MatchCursor cursor = openCursor(candidates, job);
+        long started = Metrics.start();
+        List<CandidateMatch> matches = cursor.nextPage(candidates.size());
+        Metrics.record(Metrics.Stage.RANK, started);
+        return matches;
+    }
+
+    // Scores the column in one kernel call, then keeps the best k in a bounded heap
+    @Override
+    public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
+        }
+        CandidateTable current = tableFor(candidates);
+        ScoringPlan plan = ScoringPlan.of(job);
+        double[] scores = score(current, plan);
+        long started = Metrics.start();
+        TopKCollector topK = new TopKCollector(Math.min(k, scores.length));
+        boolean filtered = plan.filtered();
+        int accepted = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (current.isLive(i) && (!filtered || plan.accepts(current, i))) {
+                topK.offer(scores[i], i);
+                accepted++;
+            }
+        }
+        Metrics.candidates(candidates.size(), accepted);
+        List<CandidateMatch> matches = topK.toMatches(current.getCandidates());
+        Metrics.record(Metrics.Stage.RANK, started);
+        return matches;
+    }
+
+    // Hands the kernel's score array to a lazily paging cursor, without the rows failing the hard filters
+    @Override
+    public MatchCursor openCursor(List<CV> candidates, JobDescription job) {
+        CandidateTable current = tableFor(candidates);
+        ScoringPlan plan = ScoringPlan.of(job);
+        double[] scores = score(current, plan);
+        int[] ordinals = new int[scores.length];
+        int size = 0;
+        boolean filtered = plan.filtered();
+        for (int i = 0; i < ordinals.length; i++) {
+            if (current.isLive(i) && (!filtered || plan.accepts(current, i))) {
+                ordinals[size] = i;
+                scores[size++] = scores[i]; // Never overtakes i, so unread scores are not overwritten
+            }
+        }
+        Metrics.candidates(candidates.size(), size);
+        return new MatchCursor(current.getCandidates(), ordinals, scores, size);
+    }
+
+    // Scores every row of the table; the kernel is cheaper than checking the filters first
+    private double[] score(CandidateTable current, ScoringPlan plan) {
+        long started = Metrics.start();
+        double[] scores = new double[current.size()];
+        kernel.score(current, plan, scores);
+        Metrics.record(Metrics.Stage.SCORE, started);
+        return scores;
+    }
+
+    // Returns the table for the candidate list: a repository snapshot brings its own, kept up to date as
+    // candidates are added, while any other list's table is rebuilt when a different list is queried
+    private CandidateTable tableFor(List<CV> candidates) {
+        if (candidates instanceof CandidateRepository.Snapshot snapshot) {
+            return snapshot.table();
+        }
+        CandidateTable current = table;
+        if (current == null || current.getCandidates() != candidates || current.size() != candidates.size()) {
+            current = CandidateTable.of(candidates);
+            table = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,274 @@
+package com.sample.smartcv;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+import static java.lang.System.out;
+
+// Deterministic synthetic candidates for scale and load tests, built from the sample library's vocabularies.
+// Candidate i depends only on the seed and i, so a corpus of any size is reproducible, a smaller corpus is a
+// prefix of a larger one, and candidates can be produced in any order. Skills come from the sample's skill sets
+// plus a Zipf-distributed tail (a few skills are very common, most are rare); experience is skewed towards
+// juniors; education nests Bachelor's, Master's and PhD degrees.
+//   java com.sample.smartcv.CorpusGenerator <file> <count> [seed]
+// writes a binary snapshot when the file ends in ".snap", and resume texts for -Dsmartcv.import otherwise.
+public final class CorpusGenerator {
+    // Seed used when none is given
+    public static final long DEFAULT_SEED = 42;
+
+    // Default Zipf exponent of skill and field frequencies; 0 makes them uniform, larger values more skewed
+    public static final double DEFAULT_SKEW = 1.0;
+
+    // Fixed "current" year for graduation dates, so output does not depend on when it is generated
+    static final int BASE_YEAR = 2024;
+
+    // Vocabularies of the sample library
+    static final String[] FIRST_NAMES = {"John", "Emma", "Michael", "Sophia", "William",
+            "Olivia", "James", "Ava", "Robert", "Mia"};
+    static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones",
+            "Miller", "Davis", "Garcia", "Rodriguez", "Wilson"};
+    static final String[][] SKILL_SETS = {
+            {"Java", "Spring", "SQL"},
+            {"Python", "Data Analysis", "Machine Learning"},
+            {"JavaScript", "React", "Node.js"},
+            {"C#", ".NET", "Azure"},
+            {"HTML", "CSS", "JavaScript", "React"},
+            {"Python", "Django", "PostgreSQL"},
+            {"Java", "Hibernate", "Microservices"},
+            {"Swift", "iOS Development", "Xcode"},
+            {"Kotlin", "Android Development", "Firebase"},
+            {"Go", "Docker", "Kubernetes"}
+    };
+    static final String[] UNIVERSITIES = {"Tech", "State", "City", "National"};
+    static final String[] DEGREES = {"Bachelor's", "Master's", "PhD"};
+
+    // Skills by popularity: the sample's skills first, then a tail of rarer ones; rank r is drawn with
+    // probability proportional to 1 / (r + 1)^skew. None is a synonym or a close spelling of another.
+    static final String[] SKILLS = {"Java", "SQL", "Python", "JavaScript", "React", "Spring", "Docker",
+            "Kubernetes", "Node.js", "Machine Learning", "Data Analysis", "C#", ".NET", "Azure", "HTML", "CSS",
+            "PostgreSQL", "Django", "Microservices", "Hibernate", "Go", "Kotlin", "Swift", "Firebase",
+            "Android Development", "iOS Development", "Xcode", "TypeScript", "AWS", "Git", "Linux", "Terraform",
+            "Kafka", "Redis", "MongoDB", "GraphQL", "Angular", "Vue.js", "Spring Boot", "Scala", "Spark",
+            "Airflow", "Pandas", "TensorFlow", "PyTorch", "C++", "Rust", "Ruby", "Rails", "PHP", "Laravel",
+            "Elasticsearch", "RabbitMQ", "GCP", "Ansible", "Jenkins", "Selenium", "JUnit", "Tableau", "Power BI",
+            "Excel", "MATLAB", "Bash", "Unity", "Hadoop", "Snowflake", "Figma", "Flask", "FastAPI", "CI/CD"};
+
+    // Fields of study by popularity, drawn with the same skew as skills
+    static final String[] FIELDS = {"Computer Science", "Software Engineering", "Information Systems",
+            "Mathematics", "Electrical Engineering", "Data Science", "Physics", "Business Administration"};
+
+    private static final String[] DOMAINS = {"gmail.com", "example.com", "outlook.com", "mail.com"};
+    private static final String[] SUMMARIES = {
+            "Engineer with a track record of shipping production systems.",
+            "Enjoys mentoring colleagues and improving team practices.",
+            "Worked across several teams on services, data pipelines and tooling.",
+            "Focused on reliability, observability and clean interfaces.",
+            "Comfortable owning features from design to operation.",
+            "Contributed to open source projects in spare time.",
+            "Led migrations of legacy systems with zero downtime.",
+            "Prefers small, well-tested changes and clear documentation."};
+    private static final String[] ROLES = {"Software Engineer", "Senior Developer", "Data Engineer", "Tech Lead",
+            "Backend Developer", "Frontend Developer", "Mobile Developer", "Platform Engineer"};
+    private static final String[] COMPANY_NAMES = {"Northwind", "Contoso", "Initech", "Globex", "Umbrella", "Hooli",
+            "Vandelay", "Stark", "Wayne", "Acme"};
+    private static final String[] COMPANY_KINDS = {"Labs", "Systems", "Software", "Analytics", "Digital", "Group"};
+
+    private static final double NO_DEGREE = 0.08; // Share of candidates without any degree
+    private static final double MASTERS = 0.35; // Share of graduates going on to a Master's
+    private static final double DOCTORATES = 0.15; // Share of Master's graduates going on to a PhD
+    private static final double KEEP_STACK_SKILL = 0.8; // Chance to list each skill of the candidate's skill set
+    private static final double MEAN_YEARS = 6.0; // Mean of the exponentially distributed years of experience
+    private static final int MAX_YEARS = 40;
+
+    private final long seed; // Every candidate is derived from the seed and its index
+    private final double[] skillCdf; // Cumulative Zipf probabilities over SKILLS
+    private final double[] stackCdf; // Cumulative Zipf probabilities over SKILL_SETS
+    private final double[] fieldCdf; // Cumulative Zipf probabilities over FIELDS
+
+    // Creates a generator with the default skew
+    public CorpusGenerator(long seed) {
+        this(seed, DEFAULT_SKEW);
+    }
+
+    // Creates a generator whose skill and field frequencies follow a Zipf law with the given exponent
+    public CorpusGenerator(long seed, double skew) {
+        if (!(skew >= 0)) {
+            throw new IllegalArgumentException("Skew cannot be negative");
+        }
+        this.seed = seed;
+        this.skillCdf = zipf(SKILLS.length, skew);
+        this.stackCdf = zipf(SKILL_SETS.length, skew);
+        this.fieldCdf = zipf(FIELDS.length, skew);
+    }
+
+    // The index-th candidate, built directly without parsing
+    public CV candidate(long index) {
+        Profile profile = profile(index);
+        return new CV(profile.name(), profile.email(), profile.skills(), profile.yearsExperience(),
+                profile.education());
+    }
+
+    // The index-th candidate as resume text in the sample library's format; parsing it yields candidate(index)
+    public String resume(long index) {
+        Profile profile = profile(index);
+        StringBuilder text = new StringBuilder(512);
+        text.append("Name: ").append(profile.name()).append('\n');
+        text.append("Email: ").append(profile.email()).append('\n');
+        text.append("Skills: ").append(String.join(", ", profile.skills())).append('\n');
+        text.append("Experience: ").append(profile.yearsExperience()).append(" years\n");
+        if (!profile.education().isEmpty()) {
+            text.append("Education: ");
+            for (int i = 0; i < profile.education().size(); i++) {
+                CV.Education entry = profile.education().get(i);
+                text.append(i == 0 ? "" : "; ").append(entry.degree()).append(" in ").append(entry.field())
+                        .append(", ").append(entry.institution()).append(" (").append(entry.graduationYear()).append(')');
+            }
+            text.append('\n');
+        }
+        text.append("Summary: ").append(profile.summary()).append('\n');
+        return text.toString();
+    }
+
+    // The first count candidates
+    public List<CV> candidates(int count) {
+        List<CV> candidates = new ArrayList<>(count);
+        forEach(count, candidates::add);
+        return candidates;
+    }
+
+    // Hands the first count candidates to the library one at a time, so they never have to be held as a list
+    public void forEach(long count, Consumer<CV> library) {
+        for (long i = 0; i < count; i++) {
+            library.accept(candidate(i));
+        }
+    }
+
+    // Writes the first count resumes to a corpus file, separated like IngestionPipeline.ingestCorpus expects
+    public void writeCorpus(Path file, long count) throws IOException {
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 20)) {
+            for (long i = 0; i < count; i++) {
+                if (i > 0) {
+                    writer.write(IngestionPipeline.DEFAULT_RECORD_SEPARATOR);
+                    writer.write('\n');
+                }
+                writer.write(resume(i));
+            }
+        }
+    }
+
+    // Draws distinct skills with the corpus's skill frequencies, e.g. for the queries of a load test
+    Set<String> sampleSkills(SplittableRandom random, int count) {
+        Set<String> skills = new LinkedHashSet<>();
+        while (skills.size() < Math.min(count, SKILLS.length)) {
+            skills.add(SKILLS[draw(skillCdf, random)]);
+        }
+        return skills;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CorpusGenerator <file> <count> [seed]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[0]);
+        long count = Long.parseLong(args[1]);
+        CorpusGenerator generator = new CorpusGenerator(args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED);
+
+        long started = System.nanoTime();
+        if (file.getFileName().toString().endsWith(".snap")) {
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("A snapshot holds at most " + Integer.MAX_VALUE + " candidates");
+            }
+            CandidateSnapshot.write(generator.candidates((int) count), file);
+        } else {
+            generator.writeCorpus(file, count);
+        }
+        out.printf("Wrote %d candidates to %s (%d MB) in %d ms%n", count, file, Files.size(file) >> 20,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Derives every attribute of one candidate from its own random stream
+    private Profile profile(long index) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        // The index keeps emails unique, so deduplication never merges two generated candidates by email
+        String email = first.toLowerCase() + "." + last.toLowerCase() + index + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+
+        // Most of a skill set the candidate works with, plus a few skills from across the popularity curve
+        Set<String> skills = new LinkedHashSet<>();
+        for (String skill : SKILL_SETS[draw(stackCdf, random)]) {
+            if (random.nextDouble() < KEEP_STACK_SKILL) {
+                skills.add(skill);
+            }
+        }
+        int extra = random.nextInt(5);
+        for (int i = 0; i < extra || skills.isEmpty(); i++) {
+            skills.add(SKILLS[draw(skillCdf, random)]);
+        }
+
+        // Exponentially distributed: many juniors, a long tail of veterans
+        int years = (int) Math.min(MAX_YEARS, -MEAN_YEARS * Math.log(1.0 - random.nextDouble()));
+
+        // Degrees build on each other; each one takes a few years after the previous
+        List<CV.Education> education = new ArrayList<>(3);
+        if (random.nextDouble() >= NO_DEGREE) {
+            String field = FIELDS[draw(fieldCdf, random)];
+            int graduated = Math.max(BASE_YEAR - 50, BASE_YEAR - years - random.nextInt(3));
+            int degrees = random.nextDouble() < MASTERS ? (random.nextDouble() < DOCTORATES ? 3 : 2) : 1;
+            for (int level = 0; level < degrees; level++) {
+                if (level > 0) {
+                    graduated = Math.min(BASE_YEAR, graduated + (level == 1 ? 2 : 4));
+                    if (random.nextDouble() >= 0.7) {
+                        field = FIELDS[draw(fieldCdf, random)]; // Most stay in their field
+                    }
+                }
+                education.add(new CV.Education("University of " + UNIVERSITIES[random.nextInt(UNIVERSITIES.length)],
+                        DEGREES[level], field, graduated));
+            }
+        }
+
+        // The recent role varies enough that two generated resumes are rarely taken for near-duplicates
+        String summary = SUMMARIES[random.nextInt(SUMMARIES.length)] + " " + SUMMARIES[random.nextInt(SUMMARIES.length)]
+                + " Recent role: " + ROLES[random.nextInt(ROLES.length)] + " at "
+                + COMPANY_NAMES[random.nextInt(COMPANY_NAMES.length)] + " "
+                + COMPANY_KINDS[random.nextInt(COMPANY_KINDS.length)] + " since " + (BASE_YEAR - random.nextInt(Math.max(1, years) + 1)) + ".";
+        return new Profile(first + " " + last, email, skills, years, education, summary);
+    }
+
+    // Cumulative probabilities of ranks 0..size-1 under a Zipf law with the given exponent
+    private static double[] zipf(int size, double skew) {
+        double[] cdf = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1.0 / Math.pow(rank + 1, skew);
+            cdf[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cdf[rank] /= total;
+        }
+        cdf[size - 1] = 1.0; // Guards against rounding leaving the last rank unreachable
+        return cdf;
+    }
+
+    // Draws a rank from cumulative probabilities
+    private static int draw(double[] cdf, SplittableRandom random) {
+        int position = Arrays.binarySearch(cdf, random.nextDouble());
+        return position >= 0 ? position : -position - 1;
+    }
+
+    // Everything generated for one candidate
+    private record Profile(String name, String email, Set<String> skills, int yearsExperience,
+                           List<CV.Education> education, String summary) {}
+}
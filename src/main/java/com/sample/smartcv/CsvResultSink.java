@@ -0,0 +1,60 @@
+package com.sample.smartcv;
+
+import java.io.Writer;
+
+// Rankings as comma-separated values (RFC 4180) with a header row. Lists of skills are joined with ';' inside
+// one field; scores are written with full precision.
+public final class CsvResultSink extends BufferedResultSink {
+    private static final String HEADER =
+            "rank,name,email,score,years_experience,highest_degree,matched_skills,missing_skills\n";
+
+    private final StringBuilder field = new StringBuilder(); // A skill list, collected before it is quoted
+
+    // Creates a sink writing CSV; with closeTarget false, the target is only flushed on close
+    public CsvResultSink(Writer target, boolean closeTarget) {
+        super(target, closeTarget);
+    }
+
+    @Override
+    protected void header(StringBuilder out, JobDescription job) {
+        out.append(HEADER);
+    }
+
+    @Override
+    protected void row(StringBuilder out, int rank, CandidateMatch match) {
+        CV candidate = match.getCandidate();
+        out.append(rank).append(',');
+        value(out, candidate.getName()).append(',');
+        value(out, candidate.getEmail()).append(',');
+        out.append(match.getScore()).append(',');
+        out.append(candidate.getYearsExperience()).append(',');
+        out.append(candidate.getHighestDegree().name()).append(',');
+        field.setLength(0);
+        appendRequiredSkills(field, true, ";");
+        value(out, field).append(',');
+        field.setLength(0);
+        appendRequiredSkills(field, false, ";");
+        value(out, field).append('\n');
+    }
+
+    // Appends a field, quoted only when it contains a separator, a quote or a line break
+    private static StringBuilder value(StringBuilder out, CharSequence text) {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return out.append(text);
+        }
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                out.append('"'); // Quotes inside a field are doubled
+            }
+            out.append(c);
+        }
+        return out.append('"');
+    }
+}
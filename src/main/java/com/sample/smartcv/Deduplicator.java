@@ -0,0 +1,312 @@
+package com.sample.smartcv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Ingestion stage recognizing candidates that were already ingested: exactly, by a hash of the normalized email,
+// and approximately, by MinHash signatures of the resume text bucketed with locality-sensitive hashing (LSH).
+// Only fixed-size hashes and signatures of remembered records are kept, never their text, and at most
+// `capacity` records are remembered, so memory stays bounded however large the corpus is.
+// check() and remember() are called from one thread; signature() may run on any thread.
+public final class Deduplicator {
+    // Default Jaccard similarity of word shingles from which two resumes count as the same candidate
+    public static final double DEFAULT_MIN_SIMILARITY = 0.8;
+
+    // Default number of records remembered; each takes a few hundred bytes
+    public static final int DEFAULT_CAPACITY = 1_000_000;
+
+    private static final int SHINGLE_WORDS = 3; // Words per shingle
+    private static final int BANDS = 8; // LSH bands; a pair sharing all rows of any band is compared
+    private static final int ROWS = 4; // Signature entries per band
+    private static final int SIGNATURE_SIZE = BANDS * ROWS; // MinHash values per signature, a power of two
+    private static final int BUCKET_SHIFT = 64 - Integer.numberOfTrailingZeros(SIGNATURE_SIZE); // Hash bits -> bucket
+    private static final int VALUE_BITS = 26; // Bits of a bucket value; leaves room for the densification offset
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L; // FNV-1a, used to hash words and emails
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // Why a record was recognized, or UNIQUE if it was not
+    public enum Kind {
+        UNIQUE,
+        SAME_EMAIL,
+        NEAR_DUPLICATE
+    }
+
+    // Outcome of checking one record: duplicates name the remembered record they are merged into, with the
+    // estimated text similarity (0 when one of the texts had no words)
+    public record Decision(String source, Kind kind, String keptSource, double similarity) {
+        // Whether the record should be dropped in favour of keptSource
+        public boolean isDuplicate() {
+            return kind != Kind.UNIQUE;
+        }
+
+        @Override
+        public String toString() {
+            return switch (kind) {
+                case UNIQUE -> source + ": unique";
+                case SAME_EMAIL -> String.format("%s: same email as %s (text %.0f%% similar)",
+                        source, keptSource, similarity * 100);
+                case NEAR_DUPLICATE -> String.format("%s: %.0f%% similar to %s", source, similarity * 100, keptSource);
+            };
+        }
+    }
+
+    private final double minSimilarity; // Estimated similarity from which a record is a near-duplicate
+    private final int capacity; // Most records remembered
+    private final LongIntMap slotsByEmail = new LongIntMap(); // Email hash -> slot of the remembered record
+    private final LongIntMap[] slotsByBand = new LongIntMap[BANDS]; // Per band: band hash -> first slot with it
+    private final List<String> sources = new ArrayList<>(); // Slot -> source of the remembered record
+    private int[] signatures = new int[64 * SIGNATURE_SIZE]; // Slot -> signature, SIGNATURE_SIZE entries each
+    private boolean[] hasSignature = new boolean[64]; // Slot -> whether its text had any words
+
+    // Creates a stage with the default similarity and capacity
+    public Deduplicator() {
+        this(DEFAULT_MIN_SIMILARITY, DEFAULT_CAPACITY);
+    }
+
+    // Creates a stage treating records at least minSimilarity alike (0 to 1) as duplicates
+    public Deduplicator(double minSimilarity, int capacity) {
+        if (!(minSimilarity > 0 && minSimilarity <= 1)) {
+            throw new IllegalArgumentException("Minimum similarity must be above 0 and at most 1");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.minSimilarity = minSimilarity;
+        this.capacity = capacity;
+        for (int b = 0; b < BANDS; b++) {
+            slotsByBand[b] = new LongIntMap();
+        }
+    }
+
+    // MinHash signature of a resume: its text is lowercased and split into words, and every run of
+    // SHINGLE_WORDS words is hashed once. The hash picks one of SIGNATURE_SIZE buckets and each bucket keeps
+    // its smallest value (one-permutation hashing), so a shingle costs one hash instead of one per entry.
+    // Texts without words get an empty signature, which is similar to nothing.
+    public static int[] signature(CharSequence text) {
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        long[] words = new long[SHINGLE_WORDS]; // Hashes of the last words, as a ring
+        int wordCount = 0;
+        long word = FNV_OFFSET;
+        boolean inWord = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word = (word ^ Character.toLowerCase(c)) * FNV_PRIME;
+                inWord = true;
+            } else if (inWord) {
+                words[wordCount++ % SHINGLE_WORDS] = word;
+                if (wordCount >= SHINGLE_WORDS) {
+                    addShingle(signature, shingle(words, wordCount));
+                }
+                word = FNV_OFFSET;
+                inWord = false;
+            }
+        }
+        if (wordCount == 0) {
+            return new int[0];
+        }
+        if (wordCount < SHINGLE_WORDS) {
+            addShingle(signature, shingle(words, wordCount)); // Short texts form a single shingle of what there is
+        }
+        densify(signature);
+        return signature;
+    }
+
+    // Decides whether a record duplicates a remembered one, without remembering it; the signature comes from
+    // signature() over the record's text
+    public Decision check(String source, CV candidate, int[] signature) {
+        int sameEmail = slotsByEmail.get(emailHash(candidate.getEmail()));
+        if (sameEmail >= 0) {
+            return new Decision(source, Kind.SAME_EMAIL, sources.get(sameEmail), similarity(signature, sameEmail));
+        }
+        if (signature.length == 0) {
+            return new Decision(source, Kind.UNIQUE, null, 0.0);
+        }
+
+        // Only records sharing a whole band with this one are compared; the most similar one wins
+        int bestSlot = -1;
+        double best = 0.0;
+        for (int b = 0; b < BANDS; b++) {
+            int slot = slotsByBand[b].get(bandHash(signature, b));
+            if (slot >= 0 && slot != bestSlot) {
+                double similarity = similarity(signature, slot);
+                if (similarity > best || (similarity == best && slot < bestSlot)) {
+                    best = similarity;
+                    bestSlot = slot;
+                }
+            }
+        }
+        return bestSlot >= 0 && best >= minSimilarity
+                ? new Decision(source, Kind.NEAR_DUPLICATE, sources.get(bestSlot), best)
+                : new Decision(source, Kind.UNIQUE, null, 0.0);
+    }
+
+    // Remembers a record that was kept, so later copies of it are recognized; ignored once capacity is reached
+    public void remember(String source, CV candidate, int[] signature) {
+        int slot = sources.size();
+        if (slot >= capacity) {
+            return;
+        }
+        sources.add(source);
+        slotsByEmail.putIfAbsent(emailHash(candidate.getEmail()), slot);
+        if (slot == hasSignature.length) {
+            hasSignature = Arrays.copyOf(hasSignature, Math.min(capacity, slot * 2));
+            signatures = Arrays.copyOf(signatures, hasSignature.length * SIGNATURE_SIZE);
+        }
+        if (signature.length == SIGNATURE_SIZE) {
+            hasSignature[slot] = true;
+            System.arraycopy(signature, 0, signatures, slot * SIGNATURE_SIZE, SIGNATURE_SIZE);
+            for (int b = 0; b < BANDS; b++) {
+                slotsByBand[b].putIfAbsent(bandHash(signature, b), slot); // The first record keeps the bucket
+            }
+        }
+    }
+
+    // Number of records remembered so far
+    public int remembered() {
+        return sources.size();
+    }
+
+    // Whether the capacity is used up, i.e. new records are no longer remembered
+    public boolean isFull() {
+        return sources.size() >= capacity;
+    }
+
+    // Share of equal signature entries, which estimates the Jaccard similarity of the two shingle sets
+    private double similarity(int[] signature, int slot) {
+        if (signature.length != SIGNATURE_SIZE || !hasSignature[slot]) {
+            return 0.0;
+        }
+        int equal = 0;
+        int offset = slot * SIGNATURE_SIZE;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (signatures[offset + i] == signature[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_SIZE;
+    }
+
+    // Hash of the last SHINGLE_WORDS words (or fewer), in reading order
+    private static long shingle(long[] words, int wordCount) {
+        long hash = 0;
+        for (int i = Math.max(0, wordCount - SHINGLE_WORDS); i < wordCount; i++) {
+            hash = mix(hash * 31 + words[i % SHINGLE_WORDS]);
+        }
+        return hash;
+    }
+
+    // Lowers the entry of the shingle's bucket to the shingle's value
+    private static void addShingle(int[] signature, long shingle) {
+        int bucket = (int) (shingle >>> BUCKET_SHIFT);
+        int value = (int) (shingle & ((1L << VALUE_BITS) - 1));
+        if (value < signature[bucket]) {
+            signature[bucket] = value;
+        }
+    }
+
+    // Fills buckets no shingle fell into from the next filled bucket to the right (wrapping around), offset by
+    // the distance, so two texts agree on an empty bucket about as often as on a filled one (rotation
+    // densification); without it, empty buckets of short texts would look alike
+    private static void densify(int[] signature) {
+        int[] filled = signature.clone();
+        for (int b = 0; b < SIGNATURE_SIZE; b++) {
+            if (filled[b] != Integer.MAX_VALUE) {
+                continue;
+            }
+            int distance = 1;
+            while (filled[(b + distance) % SIGNATURE_SIZE] == Integer.MAX_VALUE) {
+                distance++; // Ends: at least one bucket holds a shingle
+            }
+            signature[b] = filled[(b + distance) % SIGNATURE_SIZE] + (distance << VALUE_BITS);
+        }
+    }
+
+    // Hash of the ROWS entries of one band
+    private static long bandHash(int[] signature, int band) {
+        long hash = band;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+            hash = mix(hash * 31 + signature[i]);
+        }
+        return hash;
+    }
+
+    // Hash of an email, which CV has already trimmed and lowercased
+    private static long emailHash(String email) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < email.length(); i++) {
+            hash = (hash ^ email.charAt(i)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    // Final mixing step of MurmurHash3, spreading every input bit over the whole value
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    // Open-addressing hash map from long keys to int slots, without boxing any entry
+    private static final class LongIntMap {
+        private long[] keys = new long[16];
+        private int[] values = filled(16); // -1 marks a free position
+        private int size;
+
+        // Slot stored for the key, or -1
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = (int) key & mask; values[i] >= 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        // Stores the slot unless the key already has one
+        void putIfAbsent(long key, int value) {
+            if (get(key) >= 0) {
+                return;
+            }
+            if (2 * (size + 1) > keys.length) {
+                grow(); // At most half full, so probe runs stay short
+            }
+            insert(key, value);
+            size++;
+        }
+
+        private void insert(long key, int value) {
+            int mask = keys.length - 1;
+            int i = (int) key & mask;
+            while (values[i] >= 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = filled(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] >= 0) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int[] filled(int length) {
+            int[] array = new int[length];
+            Arrays.fill(array, -1);
+            return array;
+        }
+    }
+}
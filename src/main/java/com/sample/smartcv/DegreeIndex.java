@@ -0,0 +1,94 @@
+package com.sample.smartcv;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Secondary index over education: candidate ordinals grouped by highest DegreeLevel, lowest level first, and
+// sorted by the graduation year of that degree within a level. "At least this level" is then a suffix of one
+// array, and a graduation-year window within a level is found by binary search.
+public final class DegreeIndex {
+    private final int[] rows; // Ordinals grouped by level, by graduation year within a level, then by ordinal
+    private final int[] graduationYears; // Graduation year of the highest degree of rows[i]; 0 without a degree
+    private final int[] levelStart; // levelStart[level]: first position of that level; levelStart[LEVELS] = size
+
+    // Classifies every candidate's education once
+    public DegreeIndex(List<CV> candidates) {
+        this(CandidateTable.of(candidates));
+    }
+
+    // Reads the table's degree and graduation-year columns; ordinals are the table's rows
+    public DegreeIndex(CandidateTable table) {
+        int size = table.size();
+        int levels = DegreeLevel.values().length;
+        byte[] level = table.degreeLevels();
+        int[] counts = new int[levels];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            counts[level[ordinal]]++;
+        }
+
+        this.levelStart = new int[levels + 1];
+        for (int l = 0; l < levels; l++) {
+            levelStart[l + 1] = levelStart[l] + counts[l];
+        }
+
+        // Place each level's entries as (graduation year, ordinal) keys, then sort every level's slice
+        long[] keys = new long[size];
+        int[] next = Arrays.copyOf(levelStart, levels);
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            keys[next[level[ordinal]]++] = ((long) table.graduationYear(ordinal) << 32) | ordinal;
+        }
+        this.rows = new int[size];
+        this.graduationYears = new int[size];
+        for (int l = 0; l < levels; l++) {
+            Arrays.sort(keys, levelStart[l], levelStart[l + 1]);
+        }
+        for (int i = 0; i < size; i++) {
+            rows[i] = (int) keys[i];
+            graduationYears[i] = (int) (keys[i] >> 32);
+        }
+    }
+
+    // Number of indexed candidates
+    public int size() {
+        return rows.length;
+    }
+
+    // Ordinals of the candidates holding at least the given level; O(hits), in a fresh array
+    public int[] atLeast(DegreeLevel level) {
+        return Arrays.copyOfRange(rows, levelStart[level.ordinal()], rows.length);
+    }
+
+    // Number of candidates holding at least the given level; O(1)
+    public int countAtLeast(DegreeLevel level) {
+        return rows.length - levelStart[level.ordinal()];
+    }
+
+    // Ordinals of the candidates whose highest degree is at least the given level and was completed within
+    // [fromYear, toYear]; O(levels * log n + hits), in a fresh array
+    public int[] atLeast(DegreeLevel level, int fromYear, int toYear) {
+        int[] hits = new int[countAtLeast(level)];
+        int size = 0;
+        for (int l = level.ordinal(); l < levelStart.length - 1; l++) {
+            int from = firstYearAtLeast(fromYear, levelStart[l], levelStart[l + 1]);
+            int to = toYear == Integer.MAX_VALUE
+                    ? levelStart[l + 1] // toYear + 1 would overflow, and every year qualifies anyway
+                    : firstYearAtLeast(toYear + 1, from, levelStart[l + 1]);
+            System.arraycopy(rows, from, hits, size, to - from);
+            size += to - from;
+        }
+        return Arrays.copyOf(hits, size);
+    }
+
+    // First position in [low, high) whose graduation year is at least the value
+    private int firstYearAtLeast(int value, int low, int high) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (graduationYears[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,48 @@
+package com.sample.smartcv;
+
+import java.util.List;
+import java.util.Locale;
+
+// Ordered degree levels, so education can be compared and stored as a single byte per candidate
+public enum DegreeLevel {
+    NONE,
+    ASSOCIATE,
+    BACHELOR,
+    MASTER,
+    DOCTORATE;
+
+    // Classifies a free-text degree such as "Master's", "MSc" or "PhD"; unknown text is NONE
+    public static DegreeLevel of(String degree) {
+        if (degree == null || degree.isBlank()) {
+            return NONE;
+        }
+        String text = degree.trim().toLowerCase(Locale.ROOT).replace(".", "");
+        if (text.startsWith("phd") || text.startsWith("doctor") || text.startsWith("dphil")) {
+            return DOCTORATE;
+        }
+        if (text.startsWith("master") || text.startsWith("msc") || text.startsWith("mba")
+                || text.startsWith("ms ") || text.equals("ms") || text.startsWith("ma ") || text.equals("ma")) {
+            return MASTER;
+        }
+        if (text.startsWith("bachelor") || text.startsWith("bsc") || text.startsWith("beng")
+                || text.startsWith("bs ") || text.equals("bs") || text.startsWith("ba ") || text.equals("ba")) {
+            return BACHELOR;
+        }
+        if (text.startsWith("associate")) {
+            return ASSOCIATE;
+        }
+        return NONE;
+    }
+
+    // Highest level among a candidate's education entries
+    public static DegreeLevel highest(List<CV.Education> education) {
+        DegreeLevel highest = NONE;
+        for (CV.Education entry : education) {
+            DegreeLevel level = of(entry.degree());
+            if (level.compareTo(highest) > 0) {
+                highest = level;
+            }
+        }
+        return highest;
+    }
+}
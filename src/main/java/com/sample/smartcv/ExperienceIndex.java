@@ -0,0 +1,74 @@
+package com.sample.smartcv;
+
+import java.util.Arrays;
+
+// Secondary index over years of experience: the rows of a candidate table sorted by their years, so a
+// [minYears, maxYears] range is found with two binary searches and read as one contiguous slice
+public final class ExperienceIndex {
+    private final int[] rows; // Row numbers ordered by years, ties in ascending row order
+    private final int[] years; // years[i] is the experience of rows[i], so it is sorted ascending
+
+    // Sorts the table's years column once
+    public ExperienceIndex(CandidateTable table) {
+        int size = table.size();
+        // Years in the high half and the row in the low half: sorting the keys orders by years, then by row
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            keys[row] = ((long) table.yearsExperience(row) << 32) | row;
+        }
+        Arrays.sort(keys);
+        this.rows = new int[size];
+        this.years = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = (int) keys[i];
+            years[i] = (int) (keys[i] >> 32);
+        }
+    }
+
+    // Number of indexed rows
+    public int size() {
+        return rows.length;
+    }
+
+    // Rows with minYears <= years <= maxYears, ordered by years; O(log n + hits), in a fresh array
+    public int[] range(int minYears, int maxYears) {
+        int from = lowerBound(minYears);
+        return Arrays.copyOfRange(rows, from, upperBound(maxYears, from));
+    }
+
+    // Number of rows with minYears <= years <= maxYears, without touching them; O(log n)
+    public int count(int minYears, int maxYears) {
+        int from = lowerBound(minYears);
+        return upperBound(maxYears, from) - from;
+    }
+
+    // First position whose years are at least the value
+    private int lowerBound(int value) {
+        int low = 0;
+        int high = years.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (years[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First position at or after from whose years are above the value
+    private int upperBound(int value, int from) {
+        int low = from;
+        int high = years.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (years[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,61 @@
+package com.sample.smartcv;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+// Constraints a candidate must meet to be ranked at all; candidates failing any of them are left out of
+// the results instead of being ranked low. Skills are normalized like required skills; a null maxYears means
+// no upper bound on experience.
+public record HardFilters(int minYears, Integer maxYears, DegreeLevel minDegree, Set<String> mustHaveSkills) {
+    // No constraints: every candidate is ranked
+    public static final HardFilters NONE = new HardFilters(0, null, DegreeLevel.NONE, Set.of());
+
+    public HardFilters {
+        if (minYears < 0) {
+            throw new IllegalArgumentException("Minimum years cannot be negative");
+        }
+        if (maxYears != null && maxYears < minYears) {
+            throw new IllegalArgumentException("Maximum years cannot be below the minimum");
+        }
+        Objects.requireNonNull(minDegree);
+        Set<String> normalized = new HashSet<>();
+        for (String skill : mustHaveSkills) {
+            String value = SkillDictionary.normalize(skill);
+            if (value != null) {
+                normalized.add(value);
+            }
+        }
+        mustHaveSkills = Set.copyOf(normalized);
+    }
+
+    // Only candidates with at least this many years of experience
+    public static HardFilters minYears(int years) {
+        return new HardFilters(years, null, DegreeLevel.NONE, Set.of());
+    }
+
+    // Only candidates whose years of experience lie in [minYears, maxYears]; null maxYears leaves it open
+    public static HardFilters yearsBetween(int minYears, Integer maxYears) {
+        return new HardFilters(minYears, maxYears, DegreeLevel.NONE, Set.of());
+    }
+
+    // Only candidates holding at least this degree level
+    public static HardFilters minDegree(DegreeLevel level) {
+        return new HardFilters(0, null, level, Set.of());
+    }
+
+    // Only candidates having every one of these skills
+    public static HardFilters mustHave(Set<String> skills) {
+        return new HardFilters(0, null, DegreeLevel.NONE, skills);
+    }
+
+    // Whether experience is constrained at all
+    public boolean limitsYears() {
+        return minYears > 0 || maxYears != null;
+    }
+
+    // Whether no constraint is set
+    public boolean isEmpty() {
+        return !limitsYears() && minDegree == DegreeLevel.NONE && mustHaveSkills.isEmpty();
+    }
+}
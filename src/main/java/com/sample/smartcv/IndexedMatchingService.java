@@ -0,0 +1,147 @@
+package com.sample.smartcv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class IndexedMatchingService implements MatchingService {
+    private final WeightedMatchingService scorer = new WeightedMatchingService(); // Shared scoring formula
+    private volatile SkillIndex index; // Index over the most recently queried candidate list
+
+    // Creates a service that builds its index lazily on the first query
+    public IndexedMatchingService() {
+    }
+
+    // Creates a service with an index built up front for the given candidate library
+    public IndexedMatchingService(List<CV> library) {
+        this.index = new SkillIndex(library);
+    }
+
+    // Creates a service using a prebuilt index (e.g. one read from a snapshot); queries must pass index.getCandidates()
+    public IndexedMatchingService(SkillIndex index) {
+        this.index = index;
+    }
+
+    // Ranks only the candidates sharing at least one required skill with the job
+    @Override
+    public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job) {
+        // Without required skills every candidate is a hit, so the index cannot narrow anything down
+        if (job.getRequiredSkillCount() == 0) {
+            return scorer.analyzeAndRank(candidates, job);
+        }
+
+        SkillPostings postings = indexFor(candidates);
+        List<CandidateMatch> matches = new ArrayList<>();
+        scoreHits(postings, candidates.size(), job,
+                (ordinal, score) -> matches.add(new CandidateMatch(postings.ordinals().get(ordinal), score)));
+
+        // Hits arrive in ordinal order, so the stable sort keeps the same tie order as a full scan
+        long started = Metrics.start();
+        matches.sort(WeightedMatchingService.RANKING_ORDER);
+        Metrics.record(Metrics.Stage.RANK, started);
+        return matches;
+    }
+
+    // Keeps only the best k hits in a bounded heap
+    @Override
+    public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job, int k) {
+        if (job.getRequiredSkillCount() == 0) {
+            return scorer.analyzeAndRank(candidates, job, k);
+        }
+
+        SkillPostings postings = indexFor(candidates);
+        TopKCollector topK = new TopKCollector(Math.min(k, candidates.size()));
+        scoreHits(postings, candidates.size(), job, (ordinal, score) -> topK.offer(score, ordinal));
+        return WeightedMatchingService.rank(topK, postings.ordinals());
+    }
+
+    // Scores the hits into primitive arrays and pages through them lazily
+    @Override
+    public MatchCursor openCursor(List<CV> candidates, JobDescription job) {
+        if (job.getRequiredSkillCount() == 0) {
+            return scorer.openCursor(candidates, job);
+        }
+
+        SkillPostings postings = indexFor(candidates);
+        HitBuffer hits = new HitBuffer();
+        scoreHits(postings, candidates.size(), job, hits::add);
+        return new MatchCursor(postings.ordinals(), hits.ordinals, hits.scores, hits.size);
+    }
+
+    // Intersects the posting lists of the required skills and scores each hit using its matched-skill count;
+    // close spellings of required skills are looked up too, and then the count alone is not the skill score
+    private void scoreHits(SkillPostings postings, int librarySize, JobDescription job, ScoredHitConsumer consumer) {
+        long started = Metrics.start();
+        ScoringPlan plan = ScoringPlan.of(job);
+        List<String> lookedUp = new ArrayList<>(job.getRequiredSkillsView());
+        for (int[] alternatives : plan.fuzzySkillIds()) {
+            for (int a = 1; a < alternatives.length; a++) { // Entry 0 is the required skill itself
+                if (alternatives[a] >= 0) { // -1 for a spelling resolved by a coordinator that nobody here has
+                    lookedUp.add(SkillDictionary.global().skill(alternatives[a]));
+                }
+            }
+        }
+        List<CV> ordinals = postings.ordinals();
+        int[] scored = new int[1];
+        if (postings instanceof CandidateRepository.Snapshot snapshot) {
+            // A repository snapshot keeps scored columns by slot, so hits are scored without decoding their CVs
+            CandidateTable table = snapshot.table();
+            postings.countMatches(lookedUp, (slot, matchedCount) -> {
+                if (plan.accepts(table, slot)) {
+                    scored[0]++;
+                    consumer.accept(slot, ScalarScoringKernel.score(table, plan, slot));
+                }
+            });
+            Metrics.record(Metrics.Stage.SCORE, started);
+            Metrics.candidates(librarySize, scored[0]);
+            return;
+        }
+        postings.countMatches(lookedUp, (ordinal, matchedCount) -> {
+            CV candidate = ordinals.get(ordinal);
+            if (plan.accepts(candidate)) {
+                scored[0]++;
+                consumer.accept(ordinal, plan.hasFuzzySkills()
+                        ? scorer.calculateMatchScore(candidate, plan)
+                        : scorer.calculateMatchScore(candidate, plan, plan.skillScore(matchedCount)));
+            }
+        });
+        Metrics.record(Metrics.Stage.SCORE, started);
+        Metrics.candidates(librarySize, scored[0]); // Only hits passing the filters are scored; the rest is skipped
+    }
+
+    // Returns the postings for the candidate list: repository snapshots carry their own incrementally
+    // maintained index, any other list gets a SkillIndex that is rebuilt when a different list is queried
+    private SkillPostings indexFor(List<CV> candidates) {
+        if (candidates instanceof CandidateRepository.Snapshot snapshot) {
+            return snapshot;
+        }
+        SkillIndex current = index;
+        if (current == null || current.getCandidates() != candidates) {
+            current = new SkillIndex(candidates);
+            index = current;
+        }
+        return current;
+    }
+
+    // Callback receiving a hit's ordinal and its final score
+    @FunctionalInterface
+    private interface ScoredHitConsumer {
+        void accept(int ordinal, double score);
+    }
+
+    // Growable pair of primitive arrays holding the scored hits of one query
+    private static final class HitBuffer {
+        private int[] ordinals = new int[16];
+        private double[] scores = new double[16];
+        private int size;
+
+        void add(int ordinal, double score) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            ordinals[size] = ordinal;
+            scores[size++] = score;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.sample.smartcv;
+
+// A single resume that could not be ingested, reported without stopping the run
+public record IngestionError(String source, String message, Exception cause) {
+    @Override
+    public String toString() {
+        return source + ": " + message;
+    }
+}
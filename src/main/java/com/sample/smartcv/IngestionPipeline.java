@@ -0,0 +1,380 @@
+package com.sample.smartcv;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public final class IngestionPipeline {
+    // Line separating records in a corpus file
+    public static final String DEFAULT_RECORD_SEPARATOR = "---";
+
+    // Default bound for the number of records being parsed or waiting to be appended
+    public static final int DEFAULT_QUEUE_CAPACITY = 1_024;
+
+    // Size of the window mapped from a corpus file at a time
+    private static final int MAP_WINDOW = 64 * 1024 * 1024;
+
+    // Files up to this size are read into a heap buffer, larger ones are memory-mapped
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+
+    // Marker telling the appender that every record has been handed over
+    private static final Outcome END_OF_INPUT = new Outcome(-1, null, null, null, null);
+
+    private final ResumeParser parser; // Parser run on the virtual threads
+    private final Validator validator; // Checks applied to each parsed CV before it is appended
+    private final int queueCapacity; // Bound for in-flight parses and for the append queue
+    private final byte[] recordSeparator; // Separator line of corpus files, as bytes
+
+    // Creates a pipeline with the default validator, queue capacity and record separator
+    public IngestionPipeline(ResumeParser parser) {
+        this(parser, Validator.DEFAULT, DEFAULT_QUEUE_CAPACITY, DEFAULT_RECORD_SEPARATOR);
+    }
+
+    // Creates a fully configured pipeline
+    public IngestionPipeline(ResumeParser parser, Validator validator, int queueCapacity, String recordSeparator) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        if (recordSeparator == null || recordSeparator.isBlank()) {
+            throw new IllegalArgumentException("Record separator cannot be blank");
+        }
+        this.parser = Objects.requireNonNull(parser);
+        this.validator = Objects.requireNonNull(validator);
+        this.queueCapacity = queueCapacity;
+        this.recordSeparator = recordSeparator.strip().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Ingests every regular file below the directory as one resume each
+    public IngestionReport ingestDirectory(Path root, Consumer<CV> library, Consumer<IngestionError> errors)
+            throws IOException, InterruptedException {
+        return ingestDirectory(root, library, errors, null, decision -> { });
+    }
+
+    // Ingests a directory, dropping resumes the deduplicator recognizes and reporting each of those decisions;
+    // a null deduplicator keeps every resume
+    public IngestionReport ingestDirectory(Path root, Consumer<CV> library, Consumer<IngestionError> errors,
+                                           Deduplicator deduplicator, Consumer<Deduplicator.Decision> merges)
+            throws IOException, InterruptedException {
+        return run(stage -> {
+            try (Stream<Path> files = Files.walk(root)) {
+                List<Path> sorted = files.filter(Files::isRegularFile).sorted().toList();
+                for (Path file : sorted) {
+                    try {
+                        stage.submit(file.toString(), decode(readFile(file)));
+                    } catch (IOException e) {
+                        stage.fail(file.toString(), "Could not read file: " + e.getMessage(), e);
+                    }
+                }
+            }
+        }, library, errors, deduplicator, merges);
+    }
+
+    // Ingests a corpus file holding many resumes separated by a separator line
+    public IngestionReport ingestCorpus(Path corpus, Consumer<CV> library, Consumer<IngestionError> errors)
+            throws IOException, InterruptedException {
+        return ingestCorpus(corpus, library, errors, null, decision -> { });
+    }
+
+    // Ingests a corpus file, dropping resumes the deduplicator recognizes and reporting each of those decisions;
+    // a null deduplicator keeps every resume
+    public IngestionReport ingestCorpus(Path corpus, Consumer<CV> library, Consumer<IngestionError> errors,
+                                        Deduplicator deduplicator, Consumer<Deduplicator.Decision> merges)
+            throws IOException, InterruptedException {
+        return run(stage -> {
+            try (FileChannel channel = FileChannel.open(corpus, StandardOpenOption.READ)) {
+                readRecords(channel, corpus.getFileName().toString(), stage);
+            }
+        }, library, errors, deduplicator, merges);
+    }
+
+    // Runs the stages: the reader feeds parse tasks on virtual threads, whose outcomes are put back into input
+    // order, deduplicated and appended on the calling thread. Parses finish in any order, but the library, the
+    // deduplicator's decisions and the error channel see the records exactly as they were read, so importing the
+    // same input twice gives the same library.
+    private IngestionReport run(Reader reader, Consumer<CV> library, Consumer<IngestionError> errors,
+                                Deduplicator deduplicator, Consumer<Deduplicator.Decision> merges)
+            throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        BlockingQueue<Outcome> appendQueue = new ArrayBlockingQueue<>(queueCapacity);
+        Stage stage = new Stage(appendQueue, deduplicator != null);
+        Throwable[] readFailure = new Throwable[1];
+
+        // Reading runs on its own thread; the executor's close() waits for the last parse before ending the input
+        Thread readerThread = Thread.ofPlatform().name("resume-reader").start(() -> {
+            try (ExecutorService parsers = Executors.newVirtualThreadPerTaskExecutor()) {
+                stage.parsers = parsers;
+                reader.read(stage);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                // Anything else, e.g. an UncheckedIOException from walking a directory, fails the whole run
+                readFailure[0] = e;
+            } finally {
+                stage.deliver(END_OF_INPUT);
+            }
+        });
+
+        // Append stage: single-threaded, so the deduplicator, the library and the error channel never see
+        // concurrent calls. Outcomes arriving ahead of an earlier record wait in a window indexed by sequence
+        // number; a record's in-flight permit is only returned once it is appended, so at most queueCapacity
+        // records are between the reader and the library and the window never overflows.
+        Outcome[] window = new Outcome[queueCapacity];
+        long next = 0; // Sequence number of the next record to append
+        long added = 0;
+        long duplicates = 0;
+        long failures = 0;
+        try {
+            for (Outcome arrived = appendQueue.take(); arrived != END_OF_INPUT; arrived = appendQueue.take()) {
+                window[(int) (arrived.sequence() % queueCapacity)] = arrived;
+                for (int slot = (int) (next % queueCapacity); window[slot] != null; slot = (int) (next % queueCapacity)) {
+                    Outcome outcome = window[slot];
+                    window[slot] = null;
+                    next++;
+                    stage.inFlight.release(); // The reader may hand over another record
+                    if (outcome.cv() != null) {
+                        if (deduplicator != null) {
+                            Deduplicator.Decision decision =
+                                    deduplicator.check(outcome.source(), outcome.cv(), outcome.signature());
+                            if (decision.isDuplicate()) {
+                                merges.accept(decision);
+                                duplicates++;
+                                continue;
+                            }
+                        }
+                        try {
+                            library.accept(outcome.cv());
+                            added++;
+                            if (deduplicator != null) {
+                                // Only candidates the library took are remembered, so copies of rejects still get a try
+                                deduplicator.remember(outcome.source(), outcome.cv(), outcome.signature());
+                            }
+                        } catch (RuntimeException e) {
+                            // The library may refuse a candidate, e.g. a repository rejecting a duplicate email
+                            errors.accept(new IngestionError(outcome.source(), e.getMessage(), e));
+                            failures++;
+                        }
+                    } else {
+                        errors.accept(outcome.error());
+                        failures++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // Stop the reader and let blocked parse tasks give up instead of waiting for a queue nobody drains
+            stage.cancelled = true;
+            readerThread.interrupt();
+            throw e;
+        }
+        readerThread.join();
+        Throwable failure = readFailure[0];
+        if (failure instanceof UncheckedIOException e) {
+            throw e.getCause();
+        } else if (failure instanceof IOException e) {
+            throw e;
+        } else if (failure instanceof RuntimeException e) {
+            throw e;
+        } else if (failure instanceof Error e) {
+            throw e;
+        } else if (failure != null) {
+            throw new IllegalStateException("Reading resumes failed", failure);
+        }
+        return new IngestionReport(stage.recordsRead, added, duplicates, failures,
+                Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    // Scans the corpus window by window and submits the text between separator lines as records
+    private void readRecords(FileChannel channel, String name, Stage stage) throws IOException, InterruptedException {
+        long fileSize = channel.size();
+        long windowStart = 0;
+        int windowSize = MAP_WINDOW;
+        int recordNumber = 0;
+
+        while (windowStart < fileSize) {
+            long length = Math.min(windowSize, fileSize - windowStart);
+            boolean lastWindow = windowStart + length == fileSize;
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+
+            int recordStart = 0;
+            int lineStart = 0;
+            while (true) {
+                int lineEnd = indexOfNewline(window, lineStart);
+                if (lineEnd < 0 && !lastWindow) {
+                    break; // The line continues in the next window
+                }
+                int contentEnd = lineEnd < 0 ? window.limit() : lineEnd;
+                if (isSeparator(window, lineStart, contentEnd)) {
+                    submitRecord(window, recordStart, lineStart, name + "#" + (++recordNumber), stage);
+                    recordStart = lineEnd < 0 ? contentEnd : lineEnd + 1;
+                }
+                if (lineEnd < 0) {
+                    // End of file: whatever follows the last separator is the final record
+                    submitRecord(window, recordStart, window.limit(), name + "#" + (++recordNumber), stage);
+                    recordStart = window.limit();
+                    break;
+                }
+                lineStart = lineEnd + 1;
+            }
+
+            if (recordStart == 0 && !lastWindow) {
+                windowSize = (int) Math.min(Integer.MAX_VALUE, windowSize * 2L); // A single record fills the window
+            }
+            windowStart += recordStart; // Map the next window from the start of the unfinished record
+        }
+    }
+
+    // Submits the bytes of a record unless they are only whitespace
+    private void submitRecord(ByteBuffer window, int start, int end, String source, Stage stage)
+            throws InterruptedException {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(window.get(i))) {
+                try {
+                    stage.submit(source, decode(window.slice(start, end - start)));
+                } catch (CharacterCodingException e) {
+                    stage.fail(source, "Record is not valid UTF-8", e);
+                }
+                return;
+            }
+        }
+    }
+
+    // Whether the line holds only the separator, ignoring surrounding whitespace (including '\r')
+    private boolean isSeparator(ByteBuffer buffer, int start, int end) {
+        while (start < end && Character.isWhitespace(buffer.get(start))) start++;
+        while (end > start && Character.isWhitespace(buffer.get(end - 1))) end--;
+        if (end - start != recordSeparator.length) {
+            return false;
+        }
+        for (int i = 0; i < recordSeparator.length; i++) {
+            if (buffer.get(start + i) != recordSeparator[i]) return false;
+        }
+        return true;
+    }
+
+    private static int indexOfNewline(ByteBuffer buffer, int from) {
+        for (int i = from; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') return i;
+        }
+        return -1;
+    }
+
+    // Reads a whole file, mapping it instead of copying when it is large
+    private static ByteBuffer readFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+            return buffer.flip();
+        }
+    }
+
+    // Decodes UTF-8 bytes into a CharBuffer the parsers can read directly
+    private static CharBuffer decode(ByteBuffer bytes) throws CharacterCodingException {
+        return StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .decode(bytes);
+    }
+
+    // Validation applied to parsed CVs; returns a rejection reason, or null to accept the CV
+    @FunctionalInterface
+    public interface Validator {
+        // Rejects CVs whose name could not be found in the resume
+        Validator DEFAULT = cv -> "Unknown".equals(cv.getName()) ? "No candidate name found" : null;
+
+        String validate(CV cv);
+    }
+
+    // Source of raw records for one run
+    @FunctionalInterface
+    private interface Reader {
+        void read(Stage stage) throws IOException, InterruptedException;
+    }
+
+    // Result of parsing one record: either a CV, with the MinHash signature of its text when deduplicating, or an
+    // error. The sequence number is the record's position in the input.
+    private record Outcome(long sequence, String source, CV cv, int[] signature, IngestionError error) {}
+
+    // Connects the reader to the parse tasks and the parse tasks to the append queue
+    private final class Stage {
+        private final BlockingQueue<Outcome> appendQueue;
+        private final boolean signRecords; // Whether parse tasks compute MinHash signatures for deduplication
+        private final Semaphore inFlight = new Semaphore(queueCapacity); // Records read but not yet appended
+        private ExecutorService parsers;
+        private long recordsRead; // Also the sequence number of the next record
+        private volatile boolean cancelled; // Set when the append stage stops consuming
+
+        Stage(BlockingQueue<Outcome> appendQueue, boolean signRecords) {
+            this.appendQueue = appendQueue;
+            this.signRecords = signRecords;
+        }
+
+        // Hands a record to a virtual thread, blocking the reader while too many records are in flight
+        void submit(String source, CharSequence text) throws InterruptedException {
+            inFlight.acquire();
+            long sequence = recordsRead++;
+            parsers.execute(() -> deliver(parse(sequence, source, text)));
+        }
+
+        // Reports a record that failed before it could be parsed
+        void fail(String source, String message, Exception cause) throws InterruptedException {
+            inFlight.acquire();
+            deliver(new Outcome(recordsRead++, source, null, null, new IngestionError(source, message, cause)));
+        }
+
+        // Parses and validates one record, turning every failure into an error outcome; the signature is
+        // computed here, in parallel, so the single append thread only compares fixed-size signatures
+        private Outcome parse(long sequence, String source, CharSequence text) {
+            try {
+                CV cv = parser.parse(text);
+                String rejection = validator.validate(cv);
+                return rejection == null
+                        ? new Outcome(sequence, source, cv, signRecords ? Deduplicator.signature(text) : null, null)
+                        : new Outcome(sequence, source, null, null, new IngestionError(source, rejection, null));
+            } catch (RuntimeException e) {
+                return new Outcome(sequence, source, null, null, new IngestionError(source, e.getMessage(), e));
+            }
+        }
+
+        // Blocks until the outcome fits into the bounded append queue, or until the run is cancelled
+        void deliver(Outcome outcome) {
+            boolean interrupted = false;
+            while (!cancelled) {
+                try {
+                    if (appendQueue.offer(outcome, 100, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
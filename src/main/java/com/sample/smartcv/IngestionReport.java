@@ -0,0 +1,20 @@
+package com.sample.smartcv;
+
+import java.time.Duration;
+
+// Summary of an ingestion run: how many records were read, added to the library, dropped as duplicates or rejected
+public record IngestionReport(long recordsRead, long candidatesAdded, long duplicates, long failures,
+                              Duration elapsed) {
+    // Throughput of the run in records per second
+    public double recordsPerSecond() {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        return seconds > 0 ? recordsRead / seconds : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%d records read, %d candidates added, %d duplicates, %d failures in %d ms (%.0f records/s)",
+                recordsRead, candidatesAdded, duplicates, failures, elapsed.toMillis(), recordsPerSecond());
+    }
+}
@@ -0,0 +1,70 @@
+package com.sample.smartcv;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Wraps a matching service so every ranking call shows up as a MatchEvent in flight recordings
+public class InstrumentedMatchingService implements MatchingService {
+    private final MatchingService delegate; // Service doing the actual ranking
+
+    // Records the calls made to the delegate
+    public InstrumentedMatchingService(MatchingService delegate) {
+        this.delegate = Objects.requireNonNull(delegate);
+    }
+
+    @Override
+    public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job) {
+        MatchEvent event = new MatchEvent();
+        event.begin();
+        List<CandidateMatch> matches = delegate.analyzeAndRank(candidates, job);
+        commit(event, job.getTitle(), candidates.size(), -1, matches.size());
+        return matches;
+    }
+
+    @Override
+    public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job, int k) {
+        MatchEvent event = new MatchEvent();
+        event.begin();
+        List<CandidateMatch> matches = delegate.analyzeAndRank(candidates, job, k);
+        commit(event, job.getTitle(), candidates.size(), k, matches.size());
+        return matches;
+    }
+
+    @Override
+    public Map<JobDescription, List<CandidateMatch>> analyzeAndRankAll(List<CV> candidates,
+                                                                      List<JobDescription> jobs, int k) {
+        MatchEvent event = new MatchEvent();
+        event.begin();
+        Map<JobDescription, List<CandidateMatch>> results = delegate.analyzeAndRankAll(candidates, jobs, k);
+        if (event.shouldCommit()) {
+            int matches = 0;
+            for (List<CandidateMatch> jobMatches : results.values()) {
+                matches += jobMatches.size();
+            }
+            commit(event, jobs.size() + " jobs", candidates.size(), k, matches);
+        }
+        return results;
+    }
+
+    // The event covers the scoring done when the cursor is opened; paging happens later, outside of it
+    @Override
+    public MatchCursor openCursor(List<CV> candidates, JobDescription job) {
+        MatchEvent event = new MatchEvent();
+        event.begin();
+        MatchCursor cursor = delegate.openCursor(candidates, job);
+        commit(event, job.getTitle(), candidates.size(), -1, cursor.remaining());
+        return cursor;
+    }
+
+    private void commit(MatchEvent event, String jobTitle, int candidates, int limit, int results) {
+        if (event.shouldCommit()) {
+            event.service = delegate.getClass().getSimpleName();
+            event.jobTitle = jobTitle;
+            event.candidates = candidates;
+            event.limit = limit;
+            event.results = results;
+            event.commit();
+        }
+    }
+}
@@ -2,26 +2,110 @@ package com.sample.smartcv;
 
 import java.util.Set;
 import java.util.List;
+import java.util.Map;
 import java.util.HashSet;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.Objects;
+import java.util.function.Function;
 
 public final class JobDescription {
     private final String title; // The job title (e.g., "Software Engineer")
     private final Set<String> requiredSkills; // A set of skills required for the job
+    private final long[] requiredSkillBits; // Exactly matched required skills known to the dictionary, as a bitset
+    private final List<String> fuzzySkills; // Required skills with close spellings, in the order of fuzzySkillIds
+    private final int[][] fuzzySkillIds; // Per required skill with close spellings: the skill and its alternatives
+    private final double[][] fuzzySkillWeights; // Credit for having each of those ids, 1 for the skill itself
     private final ExperienceRange requiredExperience; // The experience range required for the job
     private final List<DegreeRequirement> requiredEducation; // A list of education requirements for the job
+    private final HardFilters hardFilters; // Constraints candidates must meet to be ranked at all
+    private final long[] mustHaveSkillBits; // The must-have skills known to the dictionary, as a bitset over ids
 
     // Constructor to initialize the job description with title, skills, experience range, and education requirements
     public JobDescription(String title, Set<String> requiredSkills,
                           ExperienceRange requiredExperience,
                           List<DegreeRequirement> requiredEducation) {
+        this(title, requiredSkills, requiredExperience, requiredEducation, HardFilters.NONE);
+    }
+
+    // Constructor for a job whose candidates must also pass hard filters before they are scored
+    public JobDescription(String title, Set<String> requiredSkills,
+                          ExperienceRange requiredExperience,
+                          List<DegreeRequirement> requiredEducation,
+                          HardFilters hardFilters) {
+        this(title, requiredSkills, requiredExperience, requiredEducation, hardFilters,
+                SkillResolver.global()::resolveIds);
+    }
+
+    // Constructor for a job whose close spellings were resolved by another process, like the queries a
+    // ShardCoordinator sends its shards: closeSpellings maps a normalized required skill to its alternatives and
+    // their weights, best first. Skills missing from the map are matched exactly; nothing is resolved again.
+    JobDescription(String title, Set<String> requiredSkills,
+                   ExperienceRange requiredExperience,
+                   List<DegreeRequirement> requiredEducation,
+                   HardFilters hardFilters,
+                   Map<String, Map<String, Double>> closeSpellings) {
+        this(title, requiredSkills, requiredExperience, requiredEducation, hardFilters,
+                skill -> resolvedElsewhere(skill, closeSpellings.getOrDefault(skill, Map.of())));
+    }
+
+    // Shared by the constructors; resolver turns a normalized required skill into its ids and weights
+    private JobDescription(String title, Set<String> requiredSkills,
+                           ExperienceRange requiredExperience,
+                           List<DegreeRequirement> requiredEducation,
+                           HardFilters hardFilters,
+                           Function<String, SkillResolver.WeightedSkills> resolver) {
+        this.hardFilters = Objects.requireNonNull(hardFilters);
+        // Skills are only looked up: a query must not add vocabulary, and a skill nobody has cannot match anyway
+        this.mustHaveSkillBits = SkillDictionary.toBits(SkillDictionary.global().lookupAll(hardFilters.mustHaveSkills()));
         this.title = validateTitle(title); // Validate and set the job title
-        this.requiredSkills = Set.copyOf(requiredSkills); // Create an unmodifiable copy of required skills
+        this.requiredSkills = normalizeSkills(requiredSkills); // Create an unmodifiable, normalized copy of required skills
+
+        // Resolve every required skill once; those with close spellings in the vocabulary are scored as groups
+        List<String> exactSkills = new ArrayList<>();
+        List<String> fuzzySkills = new ArrayList<>();
+        List<SkillResolver.WeightedSkills> fuzzy = new ArrayList<>();
+        for (String skill : this.requiredSkills) {
+            SkillResolver.WeightedSkills resolved = resolver.apply(skill);
+            if (resolved.ids().length > 1) {
+                fuzzySkills.add(skill);
+                fuzzy.add(resolved);
+            } else {
+                exactSkills.add(skill);
+            }
+        }
+        this.requiredSkillBits = SkillDictionary.toBits(SkillDictionary.global().lookupAll(exactSkills));
+        this.fuzzySkills = List.copyOf(fuzzySkills);
+        this.fuzzySkillIds = new int[fuzzy.size()][];
+        this.fuzzySkillWeights = new double[fuzzy.size()][];
+        for (int i = 0; i < fuzzy.size(); i++) {
+            fuzzySkillIds[i] = fuzzy.get(i).ids();
+            fuzzySkillWeights[i] = fuzzy.get(i).weights();
+        }
         this.requiredExperience = Objects.requireNonNull(requiredExperience); // Ensure required experience is not null
         this.requiredEducation = List.copyOf(requiredEducation); // Create an unmodifiable copy of required education
     }
 
+    // Ids of a required skill and of close spellings resolved for it elsewhere; spellings nobody here has get -1,
+    // so they keep their place but cannot match
+    private static SkillResolver.WeightedSkills resolvedElsewhere(String skill, Map<String, Double> alternatives) {
+        int[] ids = new int[1 + alternatives.size()];
+        double[] weights = new double[ids.length];
+        ids[0] = SkillDictionary.global().lookup(skill); // Looked up only, like every query skill
+        weights[0] = 1.0;
+        int i = 1;
+        for (Map.Entry<String, Double> alternative : alternatives.entrySet()) {
+            double weight = alternative.getValue();
+            if (!(weight > 0.0 && weight <= 1.0)) {
+                throw new IllegalArgumentException("Weight of close spelling " + alternative.getKey()
+                        + " must be in (0, 1]: " + weight);
+            }
+            ids[i] = SkillDictionary.global().lookup(alternative.getKey());
+            weights[i++] = weight;
+        }
+        return new SkillResolver.WeightedSkills(ids, weights);
+    }
+
     // Validate the job title, ensuring it's not blank
     private String validateTitle(String title) {
         if (title == null || title.isBlank()) {
@@ -30,6 +114,16 @@ public final class JobDescription {
         return title.trim(); // Remove any leading/trailing whitespace
     }
 
+    // Normalize skills the same way CVs do, so "Java" and "java " (or "JS" and "JavaScript") count as one requirement
+    private static Set<String> normalizeSkills(Set<String> skills) {
+        Set<String> normalized = new HashSet<>();
+        for (String skill : skills) {
+            String value = SkillDictionary.normalize(skill);
+            normalized.add(value == null ? "" : value); // A blank requirement stays, and no candidate can meet it
+        }
+        return Set.copyOf(normalized);
+    }
+
     // Getter for the job title
     public String getTitle() {
         return title;
@@ -40,6 +134,62 @@ public final class JobDescription {
         return new HashSet<>(requiredSkills); // Return a new set to prevent modification
     }
 
+    // Read-only view of the required skills, without copying the set
+    public Set<String> getRequiredSkillsView() {
+        return requiredSkills; // Already unmodifiable
+    }
+
+    // Number of required skills, without copying the set
+    public int getRequiredSkillCount() {
+        return requiredSkills.size();
+    }
+
+    // Direct access to the bitset of the exactly matched required skills; callers must not modify the array
+    long[] requiredSkillBits() {
+        return requiredSkillBits;
+    }
+
+    // Position of a required skill in fuzzySkillIds(), or -1 if it is only matched exactly
+    int fuzzyGroupOf(String requiredSkill) {
+        return fuzzySkills.indexOf(requiredSkill);
+    }
+
+    // The close spellings credited for each required skill, by name and best first, so another process can score
+    // this job the same way; spellings this process does not know are left out
+    Map<String, Map<String, Double>> closeSpellings() {
+        Map<String, Map<String, Double>> spellings = new LinkedHashMap<>();
+        for (int g = 0; g < fuzzySkills.size(); g++) {
+            Map<String, Double> alternatives = new LinkedHashMap<>();
+            for (int a = 1; a < fuzzySkillIds[g].length; a++) { // Entry 0 is the required skill itself
+                if (fuzzySkillIds[g][a] >= 0) {
+                    alternatives.put(SkillDictionary.global().skill(fuzzySkillIds[g][a]), fuzzySkillWeights[g][a]);
+                }
+            }
+            spellings.put(fuzzySkills.get(g), alternatives);
+        }
+        return spellings;
+    }
+
+    // Direct access to the required skills with close spellings, as ids; callers must not modify the arrays
+    int[][] fuzzySkillIds() {
+        return fuzzySkillIds;
+    }
+
+    // Weights matching fuzzySkillIds(); callers must not modify the arrays
+    double[][] fuzzySkillWeights() {
+        return fuzzySkillWeights;
+    }
+
+    // Getter for the hard filters (HardFilters.NONE when there are none)
+    public HardFilters getHardFilters() {
+        return hardFilters;
+    }
+
+    // Direct access to the must-have skills bitset for filtering; callers must not modify the array
+    long[] mustHaveSkillBits() {
+        return mustHaveSkillBits;
+    }
+
     // Getter for the required experience range
     public ExperienceRange getRequiredExperience() {
         return requiredExperience;
@@ -50,6 +200,11 @@ public final class JobDescription {
         return new ArrayList<>(requiredEducation); // Return a new list to prevent modification
     }
 
+    // Read-only view of the required education, without copying the list
+    public List<DegreeRequirement> getRequiredEducationView() {
+        return requiredEducation; // Already unmodifiable
+    }
+
     // Inner record to represent the experience range (min and max years)
     public record ExperienceRange(int minYears, Integer maxYears) {
         // Method to check if a candidate's experience matches the required range
@@ -0,0 +1,50 @@
+package com.sample.smartcv;
+
+import java.io.Writer;
+
+// Rankings as JSON Lines: one self-contained object per match and line, so downstream tools can stream the file
+// without parsing it as a whole. Scores are written with full precision.
+public final class JsonLinesResultSink extends BufferedResultSink {
+    // Creates a sink writing JSON Lines; with closeTarget false, the target is only flushed on close
+    public JsonLinesResultSink(Writer target, boolean closeTarget) {
+        super(target, closeTarget);
+    }
+
+    @Override
+    protected void header(StringBuilder out, JobDescription job) {
+        // Every line stands alone; there is no header
+    }
+
+    @Override
+    protected void row(StringBuilder out, int rank, CandidateMatch match) {
+        CV candidate = match.getCandidate();
+        out.append("{\"rank\":").append(rank).append(",\"name\":");
+        QueryServer.string(out, candidate.getName());
+        out.append(",\"email\":");
+        QueryServer.string(out, candidate.getEmail());
+        out.append(",\"score\":").append(match.getScore())
+                .append(",\"yearsExperience\":").append(candidate.getYearsExperience())
+                .append(",\"highestDegree\":\"").append(candidate.getHighestDegree().name())
+                .append("\",\"matchedSkills\":");
+        skills(out, true);
+        out.append(",\"missingSkills\":");
+        skills(out, false);
+        out.append("}\n");
+    }
+
+    // Appends the required skills the row's candidate has (or lacks) as a JSON array
+    private void skills(StringBuilder out, boolean has) {
+        out.append('[');
+        boolean first = true;
+        for (int i = 0; i < requiredSkillCount(); i++) {
+            if (hasRequiredSkill(i) == has) {
+                if (!first) {
+                    out.append(',');
+                }
+                QueryServer.string(out, requiredSkill(i));
+                first = false;
+            }
+        }
+        out.append(']');
+    }
+}
@@ -0,0 +1,256 @@
+package com.sample.smartcv;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.System.out;
+
+// Closed-loop load test: builds a synthetic library with CorpusGenerator, then replays a seeded mix of skill,
+// experience and education searches from several threads, each sending its next query as soon as the last one
+// returns. Searches go to the same services the CLI uses. After a warm-up, it reports throughput and latency
+// percentiles per kind of search. A search that throws is counted as failed, kept out of the latencies and
+// reported with the first failure's stack trace; the driver then exits with status 1. An Error stops the run.
+//   java com.sample.smartcv.LoadDriver [--candidates=200000] [--threads=<cpus>] [--seconds=30] [--warmup=5]
+//        [--mix=70,20,10] [--k=20] [--seed=42] [--skew=1.0] [--cache]
+// --mix gives the relative shares of skill, experience and education searches; --cache puts the CLI's result
+// cache in front of the services, so repeated queries are answered from it.
+public final class LoadDriver {
+    // Kinds of search in the mix, in the order of --mix
+    enum Kind {
+        SKILLS,
+        EXPERIENCE,
+        EDUCATION
+    }
+
+    private static final double MUST_HAVE_SHARE = 0.2; // Share of skill searches that also require a skill
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999}; // Reported percentiles, labelled below
+    private static final String[] QUANTILE_LABELS = {"p50 ms", "p90 ms", "p99 ms", "p99.9 ms"};
+
+    private LoadDriver() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Options options = Options.parse(args);
+
+        long started = System.nanoTime();
+        CorpusGenerator generator = new CorpusGenerator(options.seed(), options.skew());
+        List<CV> library = generator.candidates(options.candidates());
+        out.printf("Generated %d candidates in %d ms%n", library.size(), (System.nanoTime() - started) / 1_000_000);
+
+        // The CLI's services: skill searches through the inverted index, the others over primitive columns
+        Map<Kind, MatchingService> matchers = new EnumMap<>(Kind.class);
+        MatchingService skills = new QueryPlanner(new IndexedMatchingService(library));
+        MatchingService fullScan = new QueryPlanner(new ColumnarMatchingService(library));
+        if (options.cache()) {
+            skills = new CachingMatchingService(skills);
+            fullScan = new CachingMatchingService(fullScan);
+        }
+        matchers.put(Kind.SKILLS, skills);
+        matchers.put(Kind.EXPERIENCE, fullScan);
+        matchers.put(Kind.EDUCATION, fullScan);
+
+        out.printf("Warming up for %d s with %d threads%n", options.warmupSeconds(), options.threads());
+        Round warmup = run(options, generator, library, matchers, options.warmupSeconds(), 0);
+        out.printf("Measuring for %d s%n", options.seconds());
+        Round measured = run(options, generator, library, matchers, options.seconds(), 1);
+        report(measured, options.seconds());
+
+        Throwable failure = warmup.firstFailure() != null ? warmup.firstFailure() : measured.firstFailure();
+        if (failure != null) {
+            out.printf("%nSearches failed (%d during warm-up); the first failure was:%n",
+                    warmup.failures().get("all").sum());
+            failure.printStackTrace(out);
+            System.exit(1);
+        }
+    }
+
+    // Runs the workload for the given time and returns the latencies and failures per kind of search and of all
+    // searches; the round keeps the measured queries apart from the warm-up ones
+    private static Round run(Options options, CorpusGenerator generator, List<CV> library,
+                             Map<Kind, MatchingService> matchers, int seconds, int round)
+            throws InterruptedException {
+        Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+        Map<String, LongAdder> failures = new LinkedHashMap<>();
+        LatencyHistogram[] byKind = new LatencyHistogram[Kind.values().length];
+        LongAdder[] failuresByKind = new LongAdder[Kind.values().length];
+        for (Kind kind : Kind.values()) {
+            byKind[kind.ordinal()] = new LatencyHistogram();
+            failuresByKind[kind.ordinal()] = new LongAdder();
+            latencies.put(kind.name().toLowerCase(), byKind[kind.ordinal()]);
+            failures.put(kind.name().toLowerCase(), failuresByKind[kind.ordinal()]);
+        }
+        LatencyHistogram all = new LatencyHistogram();
+        LongAdder allFailures = new LongAdder();
+        latencies.put("all", all);
+        failures.put("all", allFailures);
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        AtomicReference<Throwable> fatal = new AtomicReference<>(); // An Error that ended a worker
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        List<Thread> workers = new ArrayList<>(options.threads());
+        for (int t = 0; t < options.threads(); t++) {
+            // Every thread replays its own seeded query sequence
+            SplittableRandom random = new SplittableRandom(options.seed() * 31 + round * 1_000_003L + t);
+            workers.add(Thread.ofPlatform().name("load-" + t)
+                    .uncaughtExceptionHandler((thread, e) -> fatal.compareAndSet(null, e))
+                    .start(() -> {
+                        while (System.nanoTime() < deadline) {
+                            Kind kind = options.pick(random);
+                            JobDescription job = query(kind, generator, random);
+                            long queryStarted = System.nanoTime();
+                            try {
+                                matchers.get(kind).analyzeAndRank(library, job, options.k());
+                            } catch (RuntimeException e) {
+                                // A failed search says nothing about latency; count it and keep the load going
+                                failuresByKind[kind.ordinal()].increment();
+                                allFailures.increment();
+                                firstFailure.compareAndSet(null, e);
+                                continue;
+                            }
+                            long elapsed = System.nanoTime() - queryStarted;
+                            byKind[kind.ordinal()].record(elapsed);
+                            all.record(elapsed);
+                        }
+                    }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (fatal.get() != null) {
+            throw new IllegalStateException("A load worker stopped", fatal.get());
+        }
+        return new Round(latencies, failures, firstFailure.get());
+    }
+
+    // A random search of the given kind, shaped like the CLI's and the server's searches
+    private static JobDescription query(Kind kind, CorpusGenerator generator, SplittableRandom random) {
+        JobDescription.ExperienceRange anyExperience = new JobDescription.ExperienceRange(0, null);
+        return switch (kind) {
+            case SKILLS -> {
+                // Queries ask for popular skills more often, with the same skew as the candidates' skills
+                Set<String> skills = generator.sampleSkills(random, 1 + random.nextInt(4));
+                HardFilters filters = random.nextDouble() < MUST_HAVE_SHARE
+                        ? HardFilters.mustHave(Set.of(skills.iterator().next()))
+                        : HardFilters.NONE;
+                yield new JobDescription("Skill Search", skills, anyExperience, List.of(), filters);
+            }
+            case EXPERIENCE -> {
+                int minYears = random.nextInt(16);
+                Integer maxYears = random.nextBoolean() ? minYears + 1 + random.nextInt(10) : null;
+                yield new JobDescription("Experience Search", Set.of(),
+                        new JobDescription.ExperienceRange(minYears, maxYears), List.of(),
+                        HardFilters.yearsBetween(minYears, maxYears));
+            }
+            case EDUCATION -> {
+                String degree = CorpusGenerator.DEGREES[random.nextInt(CorpusGenerator.DEGREES.length)];
+                yield new JobDescription("Education Search", Set.of(), anyExperience,
+                        List.of(new JobDescription.DegreeRequirement(degree, "")),
+                        HardFilters.minDegree(DegreeLevel.of(degree)));
+            }
+        };
+    }
+
+    // Prints throughput, failures and latency percentiles per kind of search and for all searches together;
+    // queries and latencies only cover the searches that succeeded
+    private static void report(Round round, int seconds) {
+        out.printf("%n%-12s %10s %10s %10s %10s", "search", "queries", "failed", "per sec", "mean ms");
+        for (String label : QUANTILE_LABELS) {
+            out.printf(" %10s", label);
+        }
+        out.printf(" %10s%n", "max ms");
+        round.latencies().forEach((label, histogram) -> {
+            long count = histogram.count();
+            out.printf("%-12s %10d %10d %10.1f %10.3f", label, count, round.failures().get(label).sum(),
+                    (double) count / seconds, count == 0 ? 0.0 : histogram.sum() / 1e6 / count);
+            for (double quantile : QUANTILES) {
+                out.printf(" %10.3f", histogram.valueAtQuantile(quantile) / 1e6);
+            }
+            out.printf(" %10.3f%n", histogram.max() / 1e6);
+        });
+    }
+
+    // Outcome of one timed run, keyed by kind of search plus "all"; firstFailure is null if no search failed
+    private record Round(Map<String, LatencyHistogram> latencies, Map<String, LongAdder> failures,
+                         Throwable firstFailure) {}
+
+    // Command-line settings
+    private record Options(int candidates, int threads, int seconds, int warmupSeconds, int[] mix, int k,
+                           long seed, double skew, boolean cache) {
+        static Options parse(String[] args) {
+            int candidates = 200_000;
+            int threads = Runtime.getRuntime().availableProcessors();
+            int seconds = 30;
+            int warmup = 5;
+            int[] mix = {70, 20, 10};
+            int k = 20;
+            long seed = CorpusGenerator.DEFAULT_SEED;
+            double skew = CorpusGenerator.DEFAULT_SKEW;
+            boolean cache = false;
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                String name = equals < 0 ? arg : arg.substring(0, equals);
+                String value = equals < 0 ? "" : arg.substring(equals + 1);
+                switch (name) {
+                    case "--candidates" -> candidates = Integer.parseInt(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--seconds" -> seconds = Integer.parseInt(value);
+                    case "--warmup" -> warmup = Integer.parseInt(value);
+                    case "--mix" -> mix = parseMix(value);
+                    case "--k" -> k = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--skew" -> skew = Double.parseDouble(value);
+                    case "--cache" -> cache = true;
+                    default -> throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            if (candidates < 1 || threads < 1 || seconds < 1 || warmup < 0 || k < 1) {
+                throw new IllegalArgumentException("Candidates, threads, seconds and k must be positive");
+            }
+            return new Options(candidates, threads, seconds, warmup, mix, k, seed, skew, cache);
+        }
+
+        // Relative shares of the three kinds of search, e.g. "70,20,10"
+        private static int[] parseMix(String value) {
+            String[] parts = value.split(",");
+            if (parts.length != Kind.values().length) {
+                throw new IllegalArgumentException("--mix needs one share per kind of search: skills,experience,education");
+            }
+            int[] mix = new int[parts.length];
+            int total = 0;
+            for (int i = 0; i < parts.length; i++) {
+                mix[i] = Integer.parseInt(parts[i].trim());
+                if (mix[i] < 0) {
+                    throw new IllegalArgumentException("--mix shares cannot be negative");
+                }
+                total += mix[i];
+            }
+            if (total == 0) {
+                throw new IllegalArgumentException("--mix needs at least one positive share");
+            }
+            return mix;
+        }
+
+        // Draws the kind of the next search according to the mix
+        Kind pick(SplittableRandom random) {
+            int total = 0;
+            for (int share : mix) {
+                total += share;
+            }
+            int draw = random.nextInt(total);
+            for (int i = 0; i < mix.length; i++) {
+                draw -= mix[i];
+                if (draw < 0) {
+                    return Kind.values()[i];
+                }
+            }
+            throw new AssertionError("Draw beyond the total share");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.sample.smartcv;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class MatchCursor {
+    private final List<CV> candidates; // Candidate list the ordinals refer to
+    private final double[] scores; // Heap of remaining scores, the best remaining entry sits at index 0
+    private final int[] ordinals; // Candidate ordinals, kept in step with the scores heap
+    private int remaining; // Number of entries not yet handed out
+
+    // Creates a cursor over scored candidates. The arrays are taken over by the cursor and reordered in place.
+    MatchCursor(List<CV> candidates, int[] ordinals, double[] scores, int size) {
+        this.candidates = candidates;
+        this.ordinals = ordinals;
+        this.scores = scores;
+        this.remaining = size;
+
+        // Build the heap bottom-up in O(n); each page then costs O(pageSize log n)
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    // Creates a cursor over a list that is already ranked
+    public static MatchCursor of(List<CandidateMatch> ranked) {
+        List<CV> candidates = new ArrayList<>(ranked.size());
+        int[] ordinals = new int[ranked.size()];
+        double[] scores = new double[ranked.size()];
+        for (int i = 0; i < ranked.size(); i++) {
+            candidates.add(ranked.get(i).getCandidate());
+            ordinals[i] = i;
+            scores[i] = ranked.get(i).getScore();
+        }
+        return new MatchCursor(candidates, ordinals, scores, ranked.size());
+    }
+
+    // Whether more matches are available
+    public boolean hasNext() {
+        return remaining > 0;
+    }
+
+    // Number of matches not yet returned
+    public int remaining() {
+        return remaining;
+    }
+
+    // Returns the next page of matches in ranking order (fewer than pageSize at the end)
+    public List<CandidateMatch> nextPage(int pageSize) {
+        if (pageSize < 0) {
+            throw new IllegalArgumentException("Page size cannot be negative");
+        }
+        int count = Math.min(pageSize, remaining);
+        List<CandidateMatch> page = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            page.add(new CandidateMatch(candidates.get(ordinals[0]), scores[0]));
+            removeRoot();
+        }
+        return page;
+    }
+
+    // Skips the next n matches without materializing them (e.g. to jump to a later page)
+    public void skip(int n) {
+        int count = Math.min(n, remaining);
+        for (int i = 0; i < count; i++) {
+            removeRoot();
+        }
+    }
+
+    // Removes the best remaining entry from the heap
+    private void removeRoot() {
+        remaining--;
+        scores[0] = scores[remaining];
+        ordinals[0] = ordinals[remaining];
+        siftDown(0);
+    }
+
+    // Moves an entry towards the leaves while one of its children ranks above it
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= remaining) {
+                return;
+            }
+            int best = left;
+            int right = left + 1;
+            if (right < remaining && TopKCollector.ranksAbove(scores[right], ordinals[right], scores[left], ordinals[left])) {
+                best = right;
+            }
+            if (!TopKCollector.ranksAbove(scores[best], ordinals[best], scores[index], ordinals[index])) {
+                return;
+            }
+            double score = scores[index];
+            scores[index] = scores[best];
+            scores[best] = score;
+            int ordinal = ordinals[index];
+            ordinals[index] = ordinals[best];
+            ordinals[best] = ordinal;
+            index = best;
+        }
+    }
+}
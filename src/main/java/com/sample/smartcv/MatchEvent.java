@@ -0,0 +1,29 @@
+package com.sample.smartcv;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR event around one ranking call; recorded only while a flight recording with this event enabled is running
+@Name("com.sample.smartcv.Match")
+@Label("Candidate Ranking")
+@Category("Smart CV Analyzer")
+@Description("One analyzeAndRank call of a matching service")
+final class MatchEvent extends Event {
+    @Label("Service")
+    String service; // Class of the matching service doing the work
+
+    @Label("Job Title")
+    String jobTitle; // Title of the ranked job, or the number of jobs for a batch
+
+    @Label("Candidates")
+    int candidates; // Size of the candidate list
+
+    @Label("Limit")
+    int limit; // Requested number of results, or -1 for a full ranking
+
+    @Label("Results")
+    int results; // Number of matches returned
+}
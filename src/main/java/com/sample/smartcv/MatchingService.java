@@ -1,8 +1,35 @@
 package com.sample.smartcv;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public interface MatchingService {
     // Analyzes a list of candidates against a job description, then ranks them based on their fit
     List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job);
+
+    // Returns only the k best matches, in the same order analyzeAndRank would list them
+    default List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
+        }
+        List<CandidateMatch> ranked = analyzeAndRank(candidates, job);
+        return ranked.size() <= k ? ranked : new ArrayList<>(ranked.subList(0, k));
+    }
+
+    // Ranks the candidates against several jobs at once, keeping the k best matches per job (in the jobs' order)
+    default Map<JobDescription, List<CandidateMatch>> analyzeAndRankAll(List<CV> candidates,
+                                                                       List<JobDescription> jobs, int k) {
+        Map<JobDescription, List<CandidateMatch>> results = new LinkedHashMap<>();
+        for (JobDescription job : jobs) {
+            results.put(job, analyzeAndRank(candidates, job, k));
+        }
+        return results;
+    }
+
+    // Opens a cursor that hands out the ranking page by page
+    default MatchCursor openCursor(List<CV> candidates, JobDescription job) {
+        return MatchCursor.of(analyzeAndRank(candidates, job));
+    }
 }
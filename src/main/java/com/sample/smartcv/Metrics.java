@@ -0,0 +1,136 @@
+package com.sample.smartcv;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide stage timers and counters. Switched on with -Dsmartcv.metrics=true; the flag is a constant,
+// so when it is off the JIT removes the timing calls and the hot paths pay nothing.
+public final class Metrics {
+    // Whether metrics are collected in this JVM
+    public static final boolean ENABLED = Boolean.getBoolean("smartcv.metrics");
+
+    // Quantiles reported for every stage
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    // Processing stages with their own latency histogram
+    public enum Stage {
+        PARSE,  // Turning one resume into a CV
+        SCORE,  // Computing the scores of one query (including index lookups)
+        RANK,   // Ordering the scores and building the result list of one query
+        RENDER; // Printing or serializing the results of one query
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        // Label used in the exported metrics
+        public String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        // Latencies recorded for this stage
+        public LatencyHistogram histogram() {
+            return histogram;
+        }
+    }
+
+    private static final LongAdder candidatesScanned = new LongAdder(); // Library entries covered by queries
+    private static final LongAdder candidatesScored = new LongAdder(); // Scores actually computed
+    private static final LongAdder resultsReturned = new LongAdder(); // Matches handed to users
+
+    private Metrics() {
+    }
+
+    // Start time for a stage measurement, or 0 when metrics are off
+    static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    // Records the time since start() for the stage
+    static void record(Stage stage, long started) {
+        if (ENABLED) {
+            stage.histogram.record(System.nanoTime() - started);
+        }
+    }
+
+    // Counts a query covering a library of the given size, of which scored candidates were scored
+    static void candidates(long scanned, long scored) {
+        if (ENABLED) {
+            candidatesScanned.add(scanned);
+            candidatesScored.add(scored);
+        }
+    }
+
+    // Counts matches returned to a user
+    static void resultsReturned(long results) {
+        if (ENABLED) {
+            resultsReturned.add(results);
+        }
+    }
+
+    // Human-readable table of all metrics, for the CLI
+    public static String summary() {
+        if (!ENABLED) {
+            return "Metrics are disabled; start with -Dsmartcv.metrics=true to collect them.";
+        }
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%-8s %10s %12s %12s %12s %12s %12s%n",
+                "Stage", "Count", "Mean (us)", "p50 (us)", "p99 (us)", "p99.9 (us)", "Max (us)"));
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = stage.histogram;
+            long count = histogram.count();
+            text.append(String.format("%-8s %10d %12.1f %12.1f %12.1f %12.1f %12.1f%n",
+                    stage.label(), count,
+                    count == 0 ? 0.0 : histogram.sum() / (double) count / 1_000,
+                    histogram.valueAtQuantile(0.5) / 1_000.0,
+                    histogram.valueAtQuantile(0.99) / 1_000.0,
+                    histogram.valueAtQuantile(0.999) / 1_000.0,
+                    histogram.max() / 1_000.0));
+        }
+        text.append("Candidates scanned: ").append(candidatesScanned.sum()).append('\n');
+        text.append("Candidates scored:  ").append(candidatesScored.sum()).append('\n');
+        text.append("Results returned:   ").append(resultsReturned.sum()).append('\n');
+        return text.toString();
+    }
+
+    // All metrics in the Prometheus text exposition format (version 0.0.4)
+    public static String prometheus() {
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP smartcv_stage_latency_seconds Latency of each processing stage.\n");
+        text.append("# TYPE smartcv_stage_latency_seconds summary\n");
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = stage.histogram;
+            for (double quantile : QUANTILES) {
+                text.append("smartcv_stage_latency_seconds{stage=\"").append(stage.label())
+                        .append("\",quantile=\"").append(quantile).append("\"} ")
+                        .append(seconds(histogram.valueAtQuantile(quantile))).append('\n');
+            }
+            text.append("smartcv_stage_latency_seconds_sum{stage=\"").append(stage.label()).append("\"} ")
+                    .append(seconds(histogram.sum())).append('\n');
+            text.append("smartcv_stage_latency_seconds_count{stage=\"").append(stage.label()).append("\"} ")
+                    .append(histogram.count()).append('\n');
+        }
+        counter(text, "smartcv_candidates_scanned_total", "Library entries covered by queries.", candidatesScanned);
+        counter(text, "smartcv_candidates_scored_total", "Candidate scores computed by queries.", candidatesScored);
+        counter(text, "smartcv_results_returned_total", "Matches returned to users.", resultsReturned);
+        return text.toString();
+    }
+
+    // Clears all histograms and counters
+    public static void reset() {
+        for (Stage stage : Stage.values()) {
+            stage.histogram.reset();
+        }
+        candidatesScanned.reset();
+        candidatesScored.reset();
+        resultsReturned.reset();
+    }
+
+    private static void counter(StringBuilder text, String name, String help, LongAdder value) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(" counter\n");
+        text.append(name).append(' ').append(value.sum()).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+}
@@ -0,0 +1,248 @@
+package com.sample.smartcv;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ParallelMatchingService implements MatchingService {
+    // Default number of candidates below which scoring stays on the calling thread
+    public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 8_192;
+
+    private final WeightedMatchingService scorer = new WeightedMatchingService(); // Shared scoring formula
+    private final ForkJoinPool pool; // Pool the scoring tasks run on
+    private final int sequentialThreshold; // Chunk size at which tasks stop splitting
+
+    // Creates a service running on the common pool with the default threshold
+    public ParallelMatchingService() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_THRESHOLD);
+    }
+
+    // Creates a service running on the given pool, splitting work down to chunks of sequentialThreshold candidates
+    public ParallelMatchingService(ForkJoinPool pool, int sequentialThreshold) {
+        if (sequentialThreshold < 1) {
+            throw new IllegalArgumentException("Sequential threshold must be positive");
+        }
+        this.pool = Objects.requireNonNull(pool);
+        this.sequentialThreshold = sequentialThreshold;
+    }
+
+    // Scores all candidates in parallel, then ranks them in the same order as the sequential service
+    @Override
+    public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job) {
+        if (candidates.size() <= sequentialThreshold) {
+            return scorer.analyzeAndRank(candidates, job);
+        }
+        MatchCursor cursor = openCursor(candidates, job);
+        long started = Metrics.start();
+        List<CandidateMatch> matches = cursor.nextPage(candidates.size());
+        Metrics.record(Metrics.Stage.RANK, started);
+        return matches;
+    }
+
+    // Each chunk keeps its own top-K; the partial heaps are merged while the tasks join
+    @Override
+    public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job, int k) {
+        if (candidates.size() <= sequentialThreshold) {
+            return scorer.analyzeAndRank(candidates, job, k);
+        }
+        long started = Metrics.start();
+        int limit = Math.min(k, candidates.size());
+        LongAdder scored = new LongAdder();
+        TopKCollector topK = pool.invoke(new TopKTask(candidates, ScoringPlan.of(job), limit, scored, 0,
+                candidates.size()));
+        Metrics.record(Metrics.Stage.SCORE, started); // Includes merging the partial heaps
+        Metrics.candidates(candidates.size(), scored.sum());
+        return WeightedMatchingService.rank(topK, candidates);
+    }
+
+    // Each chunk scores its candidates against every job and keeps one local top-K per job
+    @Override
+    public Map<JobDescription, List<CandidateMatch>> analyzeAndRankAll(List<CV> candidates,
+                                                                      List<JobDescription> jobs, int k) {
+        if (candidates.size() <= sequentialThreshold) {
+            return scorer.analyzeAndRankAll(candidates, jobs, k);
+        }
+        long started = Metrics.start();
+        int limit = Math.min(k, candidates.size());
+        LongAdder scored = new LongAdder();
+        TopKCollector[] topK = pool.invoke(new BatchTask(candidates, ScoringPlan.of(jobs), limit, scored, 0,
+                candidates.size()));
+        Metrics.record(Metrics.Stage.SCORE, started);
+        Metrics.candidates((long) candidates.size() * jobs.size(), scored.sum());
+        return WeightedMatchingService.toResults(candidates, jobs, topK);
+    }
+
+    // Fills the score array in parallel and hands it to a lazily paging cursor
+    @Override
+    public MatchCursor openCursor(List<CV> candidates, JobDescription job) {
+        if (candidates.size() <= sequentialThreshold) {
+            return scorer.openCursor(candidates, job);
+        }
+        long started = Metrics.start();
+        ScoringPlan plan = ScoringPlan.of(job);
+        int[] ordinals = new int[candidates.size()];
+        double[] scores = new double[candidates.size()];
+        pool.invoke(new ScoreTask(candidates, plan, ordinals, scores, 0, candidates.size()));
+
+        // Filtered-out candidates were marked with ordinal -1; squeeze them out
+        int size = candidates.size();
+        if (plan.filtered()) {
+            size = 0;
+            for (int i = 0; i < ordinals.length; i++) {
+                if (ordinals[i] >= 0) {
+                    ordinals[size] = ordinals[i];
+                    scores[size++] = scores[i];
+                }
+            }
+        }
+        Metrics.record(Metrics.Stage.SCORE, started);
+        Metrics.candidates(candidates.size(), size);
+        return new MatchCursor(candidates, ordinals, scores, size);
+    }
+
+    // Task computing the top-K of a slice of the candidate list
+    @SuppressWarnings("serial") // ForkJoinTask is Serializable, but tasks never leave the pool
+    private final class TopKTask extends RecursiveTask<TopKCollector> {
+        private final List<CV> candidates;
+        private final ScoringPlan plan;
+        private final int k;
+        private final LongAdder scored; // Candidates passing the hard filters, added once per leaf
+        private final int from; // First ordinal of the slice (inclusive)
+        private final int to; // Last ordinal of the slice (exclusive)
+
+        TopKTask(List<CV> candidates, ScoringPlan plan, int k, LongAdder scored, int from, int to) {
+            this.candidates = candidates;
+            this.plan = plan;
+            this.k = k;
+            this.scored = scored;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopKCollector compute() {
+            if (to - from <= sequentialThreshold) {
+                TopKCollector local = new TopKCollector(Math.min(k, to - from));
+                int accepted = 0;
+                for (int i = from; i < to; i++) {
+                    CV candidate = candidates.get(i);
+                    if (plan.accepts(candidate)) {
+                        local.offer(scorer.calculateMatchScore(candidate, plan), i);
+                        accepted++;
+                    }
+                }
+                scored.add(accepted);
+                return local;
+            }
+
+            // Split in half, run the left half asynchronously and the right half on this thread
+            int mid = (from + to) >>> 1;
+            TopKTask left = new TopKTask(candidates, plan, k, scored, from, mid);
+            left.fork();
+            TopKCollector right = new TopKTask(candidates, plan, k, scored, mid, to).compute();
+
+            // Ties are broken by ordinal inside the heap, so the merge order does not affect the result
+            TopKCollector merged = new TopKCollector(Math.min(k, to - from));
+            merged.addAll(left.join());
+            merged.addAll(right);
+            return merged;
+        }
+    }
+
+    // Task computing one top-K per job over a slice of the candidate list
+    @SuppressWarnings("serial") // ForkJoinTask is Serializable, but tasks never leave the pool
+    private final class BatchTask extends RecursiveTask<TopKCollector[]> {
+        private final List<CV> candidates;
+        private final ScoringPlan[] plans;
+        private final int k;
+        private final LongAdder scored; // (Candidate, job) pairs passing the hard filters, added once per leaf
+        private final int from;
+        private final int to;
+
+        BatchTask(List<CV> candidates, ScoringPlan[] plans, int k, LongAdder scored, int from, int to) {
+            this.candidates = candidates;
+            this.plans = plans;
+            this.k = k;
+            this.scored = scored;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopKCollector[] compute() {
+            TopKCollector[] local = new TopKCollector[plans.length];
+            for (int j = 0; j < local.length; j++) {
+                local[j] = new TopKCollector(Math.min(k, to - from));
+            }
+
+            if (to - from <= sequentialThreshold) {
+                long accepted = 0;
+                for (int i = from; i < to; i++) {
+                    CV candidate = candidates.get(i);
+                    for (int j = 0; j < local.length; j++) {
+                        if (plans[j].accepts(candidate)) {
+                            local[j].offer(scorer.calculateMatchScore(candidate, plans[j]), i);
+                            accepted++;
+                        }
+                    }
+                }
+                scored.add(accepted);
+                return local;
+            }
+
+            int mid = (from + to) >>> 1;
+            BatchTask left = new BatchTask(candidates, plans, k, scored, from, mid);
+            left.fork();
+            TopKCollector[] right = new BatchTask(candidates, plans, k, scored, mid, to).compute();
+            TopKCollector[] leftResult = left.join();
+            for (int j = 0; j < local.length; j++) {
+                local[j].addAll(leftResult[j]);
+                local[j].addAll(right[j]);
+            }
+            return local;
+        }
+    }
+
+    // Task writing the scores of a slice of the candidate list into shared arrays
+    @SuppressWarnings("serial") // ForkJoinTask is Serializable, but tasks never leave the pool
+    private final class ScoreTask extends RecursiveAction {
+        private final List<CV> candidates;
+        private final ScoringPlan plan;
+        private final int[] ordinals;
+        private final double[] scores;
+        private final int from;
+        private final int to;
+
+        ScoreTask(List<CV> candidates, ScoringPlan plan, int[] ordinals, double[] scores, int from, int to) {
+            this.candidates = candidates;
+            this.plan = plan;
+            this.ordinals = ordinals;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= sequentialThreshold) {
+                for (int i = from; i < to; i++) {
+                    CV candidate = candidates.get(i);
+                    if (plan.accepts(candidate)) {
+                        ordinals[i] = i;
+                        scores[i] = scorer.calculateMatchScore(candidate, plan);
+                    } else {
+                        ordinals[i] = -1; // Removed once all tasks are done
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScoreTask(candidates, plan, ordinals, scores, from, mid),
+                    new ScoreTask(candidates, plan, ordinals, scores, mid, to));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.sample.smartcv;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR event around parsing one resume
+@Name("com.sample.smartcv.Parse")
+@Label("Resume Parse")
+@Category("Smart CV Analyzer")
+@Description("One resume parsed into a CV")
+final class ParseEvent extends Event {
+    @Label("Parser")
+    String parser; // Class of the parser
+
+    @Label("Characters")
+    int characters; // Length of the resume text
+
+    @Label("Candidate")
+    String candidate; // Name found in the resume
+
+    // Ends the parse measurement started at the given time, committing the event if it is being recorded
+    static CV finish(ParseEvent event, long started, ResumeParser parser, CharSequence text, CV cv) {
+        Metrics.record(Metrics.Stage.PARSE, started);
+        if (event.shouldCommit()) {
+            event.parser = parser.getClass().getSimpleName();
+            event.characters = text.length();
+            event.candidate = cv.getName();
+            event.commit();
+        }
+        return cv;
+    }
+}
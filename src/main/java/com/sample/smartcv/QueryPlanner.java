@@ -0,0 +1,357 @@
+package com.sample.smartcv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+// Evaluates the hard filters of a job before any scoring. The filters are turned into predicates, ordered by
+// the fraction of the library they let through (counted exactly by the skill, experience and degree indexes),
+// and the most selective one produces the first set of survivors straight from its index. The remaining
+// predicates only check survivors, and only the final survivors are scored. Jobs without hard filters are passed
+// to the wrapped service unchanged.
+//
+// For a CandidateRepository snapshot the planner uses the repository's incrementally kept table and postings,
+// and carries its experience and degree indexes over from the previous snapshot: rows added since are checked by
+// a scan of that unindexed tail, and the indexes are only rebuilt once the tail grows too long or the repository
+// is compacted.
+public class QueryPlanner implements MatchingService {
+    // Above this estimated survivor fraction, scoring every row with the kernel and filtering afterwards is cheaper
+    private static final double FULL_SCAN_SELECTIVITY = 0.25;
+    // Rows a snapshot's indexes may leave unindexed before they are rebuilt: this many, or an eighth of the table
+    private static final int MIN_UNINDEXED_ROWS = 1_024;
+
+    private final MatchingService unfiltered; // Service ranking jobs without hard filters
+    private final ScoringKernel kernel = ScoringKernel.preferred(); // Used when the filters are not selective
+    private volatile Library library; // Columns and indexes of the most recently queried list
+
+    // Plans filtered jobs itself and hands all other jobs to the given service
+    public QueryPlanner(MatchingService unfiltered) {
+        this.unfiltered = Objects.requireNonNull(unfiltered);
+    }
+
+    @Override
+    public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job) {
+        if (job.getHardFilters().isEmpty()) {
+            return unfiltered.analyzeAndRank(candidates, job);
+        }
+        MatchCursor cursor = openCursor(candidates, job);
+        long started = Metrics.start();
+        List<CandidateMatch> matches = cursor.nextPage(cursor.remaining());
+        Metrics.record(Metrics.Stage.RANK, started);
+        return matches;
+    }
+
+    @Override
+    public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job, int k) {
+        if (job.getHardFilters().isEmpty()) {
+            return unfiltered.analyzeAndRank(candidates, job, k);
+        }
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
+        }
+        Scored scored = execute(candidates, job);
+        long started = Metrics.start();
+        TopKCollector topK = new TopKCollector(Math.min(k, scored.size));
+        for (int i = 0; i < scored.size; i++) {
+            topK.offer(scored.scores[i], scored.rows[i]);
+        }
+        List<CandidateMatch> matches = topK.toMatches(scored.ordinals);
+        Metrics.record(Metrics.Stage.RANK, started);
+        return matches;
+    }
+
+    @Override
+    public MatchCursor openCursor(List<CV> candidates, JobDescription job) {
+        if (job.getHardFilters().isEmpty()) {
+            return unfiltered.openCursor(candidates, job);
+        }
+        Scored scored = execute(candidates, job);
+        return new MatchCursor(scored.ordinals, scored.rows, scored.scores, scored.size);
+    }
+
+    // Describes the plan for a job: predicates in evaluation order with their estimated survivors
+    public String explain(List<CV> candidates, JobDescription job) {
+        Library current = libraryFor(candidates);
+        List<Predicate> predicates = predicates(current, job.getHardFilters());
+        StringBuilder text = new StringBuilder();
+        if (predicates.isEmpty()) {
+            return text.append("No hard filters: ranked by ").append(unfiltered.getClass().getSimpleName()).toString();
+        }
+        boolean fullScan = predicates.get(0).selectivity() > FULL_SCAN_SELECTIVITY;
+        text.append(fullScan ? "Score all " : "Seed from first predicate, score survivors of ")
+                .append(candidates.size()).append(" candidates\n");
+        for (Predicate predicate : predicates) {
+            text.append(String.format("  %-30s ~%.1f%%%n", predicate.describe(), predicate.selectivity() * 100));
+        }
+        return text.toString();
+    }
+
+    // Runs the filters, then scores the survivors
+    private Scored execute(List<CV> candidates, JobDescription job) {
+        Library current = libraryFor(candidates);
+        CandidateTable table = current.table;
+        ScoringPlan plan = ScoringPlan.of(job);
+        List<Predicate> predicates = predicates(current, job.getHardFilters());
+        long started = Metrics.start();
+
+        int[] rows;
+        double[] scores;
+        int size = 0;
+        if (predicates.get(0).selectivity() > FULL_SCAN_SELECTIVITY) {
+            // Most rows survive anyway: the vectorized kernel over all rows beats checking first
+            scores = new double[table.size()];
+            kernel.score(table, plan, scores);
+            rows = new int[table.size()];
+            for (int row = 0; row < table.size(); row++) {
+                if (table.isLive(row) && plan.accepts(table, row)) {
+                    rows[size] = row;
+                    scores[size++] = scores[row];
+                }
+            }
+        } else {
+            // Selective: the first predicate seeds the survivors, the others narrow them down in place
+            rows = predicates.get(0).seed(current);
+            size = rows.length;
+            if (table.hasDeadRows()) {
+                size = retainLive(table, rows, size); // Index entries of removed candidates are dropped lazily
+            }
+            for (int p = 1; p < predicates.size() && size > 0; p++) {
+                size = predicates.get(p).retain(table, rows, size);
+            }
+            scores = new double[size];
+            for (int i = 0; i < size; i++) {
+                scores[i] = ScalarScoringKernel.score(table, plan, rows[i]);
+            }
+        }
+        Metrics.record(Metrics.Stage.SCORE, started);
+        Metrics.candidates(candidates.size(), size);
+        return new Scored(table.getCandidates(), rows, scores, size);
+    }
+
+    // Compacts the first size rows to the live ones, keeping their order; returns the new size
+    private static int retainLive(CandidateTable table, int[] rows, int size) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (table.isLive(rows[i])) {
+                rows[kept++] = rows[i];
+            }
+        }
+        return kept;
+    }
+
+    // One predicate per hard filter, most selective first; on equal counts skills go first
+    private static List<Predicate> predicates(Library library, HardFilters filters) {
+        List<Predicate> predicates = new ArrayList<>();
+        for (String skill : filters.mustHaveSkills()) {
+            int id = SkillDictionary.global().lookup(skill);
+            predicates.add(new SkillPredicate(skill, id, library.selectivity(library.index.posting(id).length)));
+        }
+        if (filters.limitsYears()) {
+            int maxYears = filters.maxYears() == null ? Integer.MAX_VALUE : filters.maxYears();
+            // A zero minimum is no bound at all, so rows with odd negative years are counted as passing it
+            int minYears = filters.minYears() == 0 ? Integer.MIN_VALUE : filters.minYears();
+            predicates.add(new YearsPredicate(minYears, maxYears,
+                    library.selectivity(library.countYears(minYears, maxYears))));
+        }
+        if (filters.minDegree() != DegreeLevel.NONE) {
+            predicates.add(new MinDegreePredicate(filters.minDegree(),
+                    library.selectivity(library.countAtLeast(filters.minDegree()))));
+        }
+        predicates.sort(Comparator.comparingDouble(Predicate::selectivity)); // Stable: keeps skills ahead on ties
+        return predicates;
+    }
+
+    // Returns the prepared library for the candidate list: a repository snapshot's is derived from the previous
+    // snapshot's, any other list's is rebuilt when a different list is queried
+    private Library libraryFor(List<CV> candidates) {
+        Library current = library;
+        if (current != null && current.source == candidates
+                && (current.generation != null || current.table.size() == candidates.size())) {
+            return current;
+        }
+        current = candidates instanceof CandidateRepository.Snapshot snapshot
+                ? Library.of(snapshot, current)
+                : Library.of(candidates);
+        library = current;
+        return current;
+    }
+
+    // Everything the planner keeps per candidate list. The experience and degree indexes cover the first
+    // experience.size() rows of the table; later rows are the unindexed tail, only found by scanning.
+    private record Library(List<CV> source, CandidateTable table, SkillPostings index, ExperienceIndex experience,
+                           DegreeIndex degrees, Object generation) {
+        // Every part is built from the table's columns, or from the snapshot's for a snapshot's list, so
+        // preparing a library never decodes a CV
+        static Library of(List<CV> candidates) {
+            CandidateTable table = CandidateTable.of(candidates);
+            CandidateSnapshot snapshot = CandidateSnapshot.backing(candidates);
+            SkillIndex index = snapshot != null ? SkillIndex.of(snapshot) : new SkillIndex(candidates);
+            return new Library(candidates, table, index, new ExperienceIndex(table), new DegreeIndex(table), null);
+        }
+
+        // Takes the table and postings the repository keeps up to date, and reuses the previous snapshot's
+        // indexes while they cover the same slots and leave at most MIN_UNINDEXED_ROWS or an eighth unindexed
+        static Library of(CandidateRepository.Snapshot snapshot, Library previous) {
+            CandidateTable table = snapshot.table();
+            if (previous != null && previous.generation == snapshot.generation()) {
+                int indexed = previous.experience.size();
+                int tail = table.size() - indexed;
+                if (tail >= 0 && tail <= Math.max(MIN_UNINDEXED_ROWS, indexed >>> 3)) {
+                    return new Library(snapshot, table, snapshot, previous.experience, previous.degrees,
+                            snapshot.generation());
+                }
+            }
+            return new Library(snapshot, table, snapshot, new ExperienceIndex(table), new DegreeIndex(table),
+                    snapshot.generation());
+        }
+
+        // Fraction of the library in [0, 1] for a candidate count
+        double selectivity(int count) {
+            return table.size() == 0 ? 0.0 : (double) count / table.size();
+        }
+
+        // Rows with years in [minYears, maxYears], from the index and the tail
+        int[] yearsRange(int minYears, int maxYears) {
+            int[] indexed = experience.range(minYears, maxYears);
+            int[] years = table.years();
+            int[] rows = Arrays.copyOf(indexed, indexed.length + table.size() - experience.size());
+            int size = indexed.length;
+            for (int row = experience.size(); row < table.size(); row++) {
+                if (years[row] >= minYears && years[row] <= maxYears) {
+                    rows[size++] = row;
+                }
+            }
+            return size == rows.length ? rows : Arrays.copyOf(rows, size);
+        }
+
+        int countYears(int minYears, int maxYears) {
+            int count = experience.count(minYears, maxYears);
+            int[] years = table.years();
+            for (int row = experience.size(); row < table.size(); row++) {
+                if (years[row] >= minYears && years[row] <= maxYears) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        // Rows holding at least the degree level, from the index and the tail
+        int[] atLeast(DegreeLevel level) {
+            int[] indexed = degrees.atLeast(level);
+            byte[] levels = table.degreeLevels();
+            int[] rows = Arrays.copyOf(indexed, indexed.length + table.size() - degrees.size());
+            int size = indexed.length;
+            for (int row = degrees.size(); row < table.size(); row++) {
+                if (levels[row] >= level.ordinal()) {
+                    rows[size++] = row;
+                }
+            }
+            return size == rows.length ? rows : Arrays.copyOf(rows, size);
+        }
+
+        int countAtLeast(DegreeLevel level) {
+            int count = degrees.countAtLeast(level);
+            byte[] levels = table.degreeLevels();
+            for (int row = degrees.size(); row < table.size(); row++) {
+                if (levels[row] >= level.ordinal()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    // Surviving rows and their scores; only the first size entries are valid. Rows are in index order, not
+    // ascending, which the ranking does not need since ties are broken by row number, not by position. The
+    // ordinals list resolves rows to CVs.
+    private record Scored(List<CV> ordinals, int[] rows, double[] scores, int size) {}
+
+    // One hard filter, with its estimated fraction of survivors
+    private interface Predicate {
+        double selectivity();
+
+        // Whether the row passes
+        boolean test(CandidateTable table, int row);
+
+        // All passing rows, in a fresh array the caller may modify
+        int[] seed(Library library);
+
+        // Compacts the first size rows to those passing, keeping their order; returns the new size
+        default int retain(CandidateTable table, int[] rows, int size) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (test(table, rows[i])) {
+                    rows[kept++] = rows[i];
+                }
+            }
+            return kept;
+        }
+
+        String describe();
+    }
+
+    // Candidate must have the skill; seeded straight from the skill's posting list
+    private record SkillPredicate(String skill, int skillId, double selectivity) implements Predicate {
+        @Override
+        public boolean test(CandidateTable table, int row) {
+            long[][] skillWords = table.skillWords();
+            int word = skillId >>> 6;
+            return skillId >= 0 && word < skillWords.length && (skillWords[word][row] & (1L << skillId)) != 0;
+        }
+
+        @Override
+        public int[] seed(Library library) {
+            return library.index().posting(skillId).clone(); // Postings are shared, survivors are compacted in place
+        }
+
+        @Override
+        public String describe() {
+            return "must have " + skill;
+        }
+    }
+
+    // Candidate's years of experience must lie in [minYears, maxYears]; seeded from the experience index
+    private record YearsPredicate(int minYears, int maxYears, double selectivity) implements Predicate {
+        @Override
+        public boolean test(CandidateTable table, int row) {
+            int years = table.years()[row];
+            return years >= minYears && years <= maxYears;
+        }
+
+        @Override
+        public int[] seed(Library library) {
+            return library.yearsRange(minYears, maxYears);
+        }
+
+        @Override
+        public String describe() {
+            if (maxYears == Integer.MAX_VALUE) {
+                return "experience >= " + minYears + " years";
+            }
+            if (minYears == Integer.MIN_VALUE) {
+                return "experience <= " + maxYears + " years";
+            }
+            return "experience " + minYears + "-" + maxYears + " years";
+        }
+    }
+
+    // Candidate must hold at least this degree; seeded from the degree index
+    private record MinDegreePredicate(DegreeLevel minDegree, double selectivity) implements Predicate {
+        @Override
+        public boolean test(CandidateTable table, int row) {
+            return table.degreeLevels()[row] >= minDegree.ordinal();
+        }
+
+        @Override
+        public int[] seed(Library library) {
+            return library.atLeast(minDegree);
+        }
+
+        @Override
+        public String describe() {
+            return "degree >= " + minDegree;
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.sample.smartcv;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public final class QueryServer implements AutoCloseable {
+    // Logger for request failures and lifecycle events
+    private static final Logger logger = Logger.getLogger(QueryServer.class.getName());
+
+    // Defaults used when the caller does not configure the limits
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 64;
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(5);
+
+    // Page size used when the request does not ask for one, and the largest page a request may ask for
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final HttpServer server; // JDK HTTP server accepting the connections
+    private final ExecutorService executor; // One virtual thread per request, and one per running query
+    private final Supplier<List<CV>> library; // Candidates searched by every request
+    private final MatchingService matcher; // Scorer shared by every request
+    private final Semaphore permits; // Bounds the number of queries running at once
+    private final long requestTimeoutNanos; // Time a request waits for its query before giving up
+
+    // Creates a server on the port with the default limits; port 0 picks a free port
+    public QueryServer(int port, Supplier<List<CV>> library, MatchingService matcher) throws IOException {
+        this(port, library, matcher, DEFAULT_MAX_CONCURRENT_REQUESTS, DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    // Creates a server; library is asked for the candidates on every request, so it may hand out fresh snapshots
+    public QueryServer(int port, Supplier<List<CV>> library, MatchingService matcher,
+                       int maxConcurrentRequests, Duration requestTimeout) throws IOException {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("At least one concurrent request must be allowed");
+        }
+        if (requestTimeout.isNegative() || requestTimeout.isZero()) {
+            throw new IllegalArgumentException("Request timeout must be positive");
+        }
+        this.library = Objects.requireNonNull(library);
+        this.matcher = Objects.requireNonNull(matcher);
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.requestTimeoutNanos = requestTimeout.toNanos();
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        server.createContext("/search/skills", exchange -> handle(exchange, this::skillSearch));
+        server.createContext("/search/experience", exchange -> handle(exchange, this::experienceSearch));
+        server.createContext("/search/education", exchange -> handle(exchange, this::educationSearch));
+        server.createContext("/health", this::health);
+        server.createContext("/metrics", this::metrics);
+    }
+
+    // Starts accepting requests
+    public void start() {
+        server.start();
+        logger.info("Query server listening on port " + port());
+    }
+
+    // Port the server is bound to
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    // Stops accepting requests, gives running ones a second to finish, then stops the virtual threads
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+        executor.close();
+    }
+
+    // GET /search/skills?skills=java,sql
+    private Query skillSearch(Map<String, String> params) {
+        Set<String> skills = skillList(required(params, "skills"));
+        if (skills.isEmpty()) {
+            throw new IllegalArgumentException("Parameter 'skills' must name at least one skill");
+        }
+        return search(params, new JobDescription("Skill Search", skills,
+                new JobDescription.ExperienceRange(0, null), List.of(), mustHave(params, HardFilters.NONE)));
+    }
+
+    // GET /search/experience?minYears=3[&maxYears=8]; candidates outside the range are left out
+    private Query experienceSearch(Map<String, String> params) {
+        int minYears = intParam(params, "minYears", 0);
+        Integer maxYears = params.containsKey("maxYears") ? intParam(params, "maxYears", 0) : null;
+        if (minYears < 0 || (maxYears != null && maxYears < minYears)) {
+            throw new IllegalArgumentException("Experience range is invalid");
+        }
+        return search(params, new JobDescription("Experience Search", Set.of(),
+                new JobDescription.ExperienceRange(minYears, maxYears), List.of(),
+                mustHave(params, HardFilters.yearsBetween(minYears, maxYears))));
+    }
+
+    // GET /search/education?degree=Master's[&field=Computer Science]; candidates below that degree are left out
+    private Query educationSearch(Map<String, String> params) {
+        String degree = required(params, "degree");
+        return search(params, new JobDescription("Education Search", Set.of(),
+                new JobDescription.ExperienceRange(0, null),
+                List.of(new JobDescription.DegreeRequirement(degree, params.getOrDefault("field", ""))),
+                mustHave(params, HardFilters.minDegree(DegreeLevel.of(degree)))));
+    }
+
+    // Adds the optional "mustHave=skill,skill" parameter of every search to the endpoint's own filters
+    private static HardFilters mustHave(Map<String, String> params, HardFilters filters) {
+        String mustHave = params.get("mustHave");
+        Set<String> skills = mustHave == null ? Set.of() : skillList(mustHave);
+        if (skills.isEmpty()) {
+            return filters;
+        }
+        return new HardFilters(filters.minYears(), filters.maxYears(), filters.minDegree(), skills);
+    }
+
+    // Splits a comma-separated skill list, dropping blank entries such as the one after a trailing comma
+    private static Set<String> skillList(String value) {
+        Set<String> skills = new HashSet<>();
+        for (String skill : value.split(",")) {
+            if (!skill.isBlank()) {
+                skills.add(skill.trim().toLowerCase());
+            }
+        }
+        return skills;
+    }
+
+    // Validates the paging parameters up front and returns the ranking work for the worker thread
+    private Query search(Map<String, String> params, JobDescription job) {
+        int page = intParam(params, "page", 0);
+        int size = intParam(params, "size", DEFAULT_PAGE_SIZE);
+        if (page < 0) {
+            throw new IllegalArgumentException("Parameter 'page' cannot be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Parameter 'size' must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long needed = (page + 1L) * size + 1; // One extra match tells whether another page exists
+        if (needed > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Requested page is out of range");
+        }
+
+        return () -> {
+            List<CandidateMatch> matches = matcher.analyzeAndRank(library.get(), job, (int) needed);
+            int from = Math.min(page * size, matches.size());
+            int to = Math.min(from + size, matches.size());
+
+            long started = Metrics.start();
+            String json = pageJson(job, page, size, matches.subList(from, to), from, matches.size() > to);
+            Metrics.record(Metrics.Stage.RENDER, started);
+            Metrics.resultsReturned(to - from);
+            return json;
+        };
+    }
+
+    // GET /health; answered directly like /metrics, so a saturated server still reports that it is up
+    private void health(HttpExchange exchange) {
+        try (exchange) {
+            send(exchange, 200, "{\"status\":\"ok\",\"candidates\":" + library.get().size()
+                    + ",\"availablePermits\":" + permits.availablePermits() + "}");
+        } catch (IOException e) {
+            logger.fine("Could not answer " + exchange.getRequestURI() + ": " + e.getMessage());
+        }
+    }
+
+    // GET /metrics, in the Prometheus text format; answered directly so scrapes still work when the server is saturated
+    private void metrics(HttpExchange exchange) {
+        try (exchange) {
+            byte[] body = Metrics.prometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            logger.fine("Could not answer " + exchange.getRequestURI() + ": " + e.getMessage());
+        }
+    }
+
+    // Runs one request: parameter validation on the request thread, the query on a worker with a deadline
+    private void handle(HttpExchange exchange, Endpoint endpoint) {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                send(exchange, 405, errorJson("Only GET is supported"));
+                return;
+            }
+            if (!permits.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 503, errorJson("Too many concurrent requests"));
+                return;
+            }
+
+            Future<String> result;
+            try {
+                Query query = endpoint.prepare(parseQuery(exchange.getRequestURI().getRawQuery()));
+                // The permit is held until the query really ends, even if its request already timed out
+                result = executor.submit(() -> {
+                    try {
+                        return query.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (IllegalArgumentException e) {
+                permits.release();
+                send(exchange, 400, errorJson(e.getMessage()));
+                return;
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                send(exchange, 503, errorJson("Server is shutting down"));
+                return;
+            }
+
+            try {
+                send(exchange, 200, result.get(requestTimeoutNanos, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                result.cancel(true);
+                send(exchange, 504, errorJson("Query did not finish within the request timeout"));
+            } catch (ExecutionException e) {
+                logger.log(Level.WARNING, "Query failed: " + exchange.getRequestURI(), e.getCause());
+                send(exchange, 500, errorJson("Query failed"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.cancel(true);
+                send(exchange, 503, errorJson("Server is shutting down"));
+            }
+        } catch (IOException e) {
+            logger.fine("Could not answer " + exchange.getRequestURI() + ": " + e.getMessage()); // Client went away
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Splits a raw query string into decoded parameters; repeated names keep the last value
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Parameter '" + name + "' is required");
+        }
+        return value;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter '" + name + "' must be a whole number");
+        }
+    }
+
+    // Renders one page of matches; ranks continue across pages
+    private static String pageJson(JobDescription job, int page, int size, List<CandidateMatch> matches,
+                                   int firstRank, boolean hasMore) {
+        StringBuilder json = new StringBuilder(256 + matches.size() * 256);
+        json.append("{\"query\":");
+        string(json, job.getTitle());
+        json.append(",\"page\":").append(page)
+                .append(",\"size\":").append(size)
+                .append(",\"hasMore\":").append(hasMore)
+                .append(",\"results\":[");
+        for (int i = 0; i < matches.size(); i++) {
+            if (i > 0) json.append(',');
+            matchJson(json, matches.get(i), firstRank + i + 1);
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void matchJson(StringBuilder json, CandidateMatch match, int rank) {
+        CV candidate = match.getCandidate();
+        json.append("{\"rank\":").append(rank).append(",\"score\":");
+        // JSON has no NaN or infinity
+        if (Double.isFinite(match.getScore())) json.append(match.getScore()); else json.append("null");
+        json.append(",\"name\":");
+        string(json, candidate.getName());
+        json.append(",\"email\":");
+        string(json, candidate.getEmail());
+        json.append(",\"yearsExperience\":").append(candidate.getYearsExperience());
+
+        List<String> skills = new ArrayList<>(candidate.getSkillsView());
+        skills.sort(null); // Stable output for clients comparing responses
+        json.append(",\"skills\":[");
+        for (int i = 0; i < skills.size(); i++) {
+            if (i > 0) json.append(',');
+            string(json, skills.get(i));
+        }
+
+        json.append("],\"education\":[");
+        List<CV.Education> education = candidate.getEducationView();
+        for (int i = 0; i < education.size(); i++) {
+            CV.Education entry = education.get(i);
+            if (i > 0) json.append(',');
+            json.append("{\"degree\":");
+            string(json, entry.degree());
+            json.append(",\"field\":");
+            string(json, entry.field());
+            json.append(",\"institution\":");
+            string(json, entry.institution());
+            json.append(",\"graduationYear\":").append(entry.graduationYear()).append('}');
+        }
+        json.append("]}");
+    }
+
+    private static String errorJson(String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        string(json, message);
+        return json.append('}').toString();
+    }
+
+    // Appends a JSON string literal, escaping quotes, backslashes and control characters; shared with JSON Lines exports
+    static void string(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                    else json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    // Turns request parameters into a query, throwing IllegalArgumentException for a bad request
+    @FunctionalInterface
+    private interface Endpoint {
+        Query prepare(Map<String, String> params);
+    }
+
+    // The work of one request, producing the JSON body
+    @FunctionalInterface
+    private interface Query {
+        String run() throws Exception;
+    }
+}
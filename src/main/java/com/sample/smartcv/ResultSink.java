@@ -0,0 +1,80 @@
+package com.sample.smartcv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+// Destination for a ranking, written row by row so that even a full ranking of the library never has to be
+// rendered as a whole: begin() once with the job, accept() per match in rank order, then end(). Closing a sink
+// flushes what it holds and releases its target.
+public interface ResultSink extends Closeable {
+    // Matches taken from a cursor at a time by writeAll(job, cursor)
+    int CURSOR_PAGE_SIZE = 1024;
+
+    // Starts a ranking for the job; called once, before any row
+    void begin(JobDescription job) throws IOException;
+
+    // Writes the next match; ranks are counted from 1 in the order of the calls
+    void accept(CandidateMatch match) throws IOException;
+
+    // Finishes the ranking and pushes everything written so far to the target
+    void end() throws IOException;
+
+    // Writes a whole ranking
+    default void writeAll(JobDescription job, List<CandidateMatch> matches) throws IOException {
+        begin(job);
+        for (CandidateMatch match : matches) {
+            accept(match);
+        }
+        end();
+    }
+
+    // Writes the rest of a cursor's ranking a page at a time, so only one page of matches exists at once
+    default void writeAll(JobDescription job, MatchCursor cursor) throws IOException {
+        begin(job);
+        while (cursor.hasNext()) {
+            for (CandidateMatch match : cursor.nextPage(CURSOR_PAGE_SIZE)) {
+                accept(match);
+            }
+        }
+        end();
+    }
+
+    // Detailed report: each candidate with email, experience, and matched and missing skills
+    static ResultSink report(Writer target) {
+        return new TextResultSink(target, TextResultSink.Layout.DETAILED_REPORT, true);
+    }
+
+    // Ranking table as shown by the CLI: each candidate with skills, experience and education
+    static ResultSink ranking(Writer target) {
+        return new TextResultSink(target, TextResultSink.Layout.RANKING, true);
+    }
+
+    // Comma-separated values with a header row
+    static ResultSink csv(Writer target) {
+        return new CsvResultSink(target, true);
+    }
+
+    // One JSON object per line and match
+    static ResultSink jsonLines(Writer target) {
+        return new JsonLinesResultSink(target, true);
+    }
+
+    // Creates or replaces a file, choosing the format by extension: .csv, .jsonl (or .ndjson), otherwise a report
+    static ResultSink open(Path file) throws IOException {
+        Writer target = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return csv(target);
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return jsonLines(target);
+        }
+        return report(target);
+    }
+}
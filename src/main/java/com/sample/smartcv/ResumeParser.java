@@ -3,4 +3,9 @@ package com.sample.smartcv;
 public interface ResumeParser {
     // Parses the raw text of a resume and converts it into a structured CV object
     CV parse(String rawText);
+
+    // Parses resume text held in any character sequence (e.g. a CharBuffer over a mapped file)
+    default CV parse(CharSequence rawText) {
+        return parse(rawText.toString());
+    }
 }
@@ -0,0 +1,50 @@
+package com.sample.smartcv;
+
+// Plain loop over the table columns; the fallback when the Vector API is not enabled
+final class ScalarScoringKernel implements ScoringKernel {
+    static final ScalarScoringKernel INSTANCE = new ScalarScoringKernel();
+
+    private ScalarScoringKernel() {
+    }
+
+    @Override
+    public void score(CandidateTable table, ScoringPlan plan, double[] scores) {
+        score(table, plan, scores, 0, table.size());
+    }
+
+    // Scores rows [from, to); also used by the vector kernel for the rows after its last full vector
+    static void score(CandidateTable table, ScoringPlan plan, double[] scores, int from, int to) {
+        for (int i = from; i < to; i++) {
+            scores[i] = score(table, plan, i);
+        }
+    }
+
+    // Scores a single row, e.g. one that survived the hard filters of a query plan
+    static double score(CandidateTable table, ScoringPlan plan, int row) {
+        long[][] skillWords = table.skillWords();
+        long[] jobBits = plan.skillBits();
+        int wordCount = Math.min(skillWords.length, jobBits.length);
+
+        int matchedCount = 0;
+        for (int w = 0; w < wordCount; w++) {
+            matchedCount += Long.bitCount(skillWords[w][row] & jobBits[w]);
+        }
+        double matched = plan.hasFuzzySkills() ? plan.matchedSkills(matchedCount, table, row) : matchedCount;
+        double skillScore = plan.skillScore(matched);
+
+        // Same branches as WeightedMatchingService.calculateExperienceMatch
+        int candidateYears = table.years()[row];
+        double experienceScore;
+        if (candidateYears >= plan.minYears() && candidateYears <= plan.maxYears()) {
+            experienceScore = 1.0;
+        } else if (candidateYears > plan.minYears()) {
+            experienceScore = 0.8;
+        } else {
+            experienceScore = 0.5 * ((double) candidateYears / plan.minYears());
+        }
+
+        return (skillScore * WeightedMatchingService.SKILL_WEIGHT)
+                + (experienceScore * WeightedMatchingService.EXPERIENCE_WEIGHT)
+                + plan.educationScore(table.degreeLevels()[row]) * WeightedMatchingService.EDUCATION_WEIGHT;
+    }
+}
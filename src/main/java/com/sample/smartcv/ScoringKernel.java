@@ -0,0 +1,23 @@
+package com.sample.smartcv;
+
+import java.util.logging.Logger;
+
+// Computes the WeightedMatchingService score for every row of a candidate table
+interface ScoringKernel {
+    // Writes the score of each row into scores, which must be at least table.size() long
+    void score(CandidateTable table, ScoringPlan plan, double[] scores);
+
+    // The Vector API kernel when the JVM runs with --add-modules jdk.incubator.vector, the scalar kernel otherwise
+    static ScoringKernel preferred() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // Loaded reflectively, so this class never links against the incubator module when it is absent
+                return (ScoringKernel) Class.forName("com.sample.smartcv.VectorScoringKernel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                Logger.getLogger(ScoringKernel.class.getName()).warning("Vector kernel unavailable, using scalar: " + e);
+            }
+        }
+        return ScalarScoringKernel.INSTANCE;
+    }
+}
@@ -0,0 +1,158 @@
+package com.sample.smartcv;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Everything the scoring formula and the hard filters need from a job, compiled once per query into primitives,
+// so scoring a candidate reads fields instead of copying the job's collections
+record ScoringPlan(long[] skillBits, int[][] fuzzySkillIds, double[][] fuzzySkillWeights, int requiredSkillCount,
+                   int minYears, int maxYears, int requiredDegree,
+                   long[] mustHaveBits, int mustHaveCount, boolean mustHaveKnown, int filterMinYears,
+                   int filterMaxYears, int filterMinDegree) {
+    // Value of requiredDegree for a job without education requirements
+    static final int NO_DEGREE_REQUIRED = -1;
+
+    // Compiles the plan for a job
+    static ScoringPlan of(JobDescription job) {
+        JobDescription.ExperienceRange experience = job.getRequiredExperience();
+        HardFilters filters = job.getHardFilters();
+        return new ScoringPlan(
+                job.requiredSkillBits(),
+                job.fuzzySkillIds(),
+                job.fuzzySkillWeights(),
+                job.getRequiredSkillCount(),
+                experience.minYears(),
+                experience.maxYears() == null ? Integer.MAX_VALUE : experience.maxYears(), // No upper bound
+                requiredDegree(job.getRequiredEducationView()),
+                job.mustHaveSkillBits(),
+                filters.mustHaveSkills().size(),
+                // A must-have missing from the dictionary has no bit, and no candidate can have it
+                bitCount(job.mustHaveSkillBits()) == filters.mustHaveSkills().size(),
+                filters.minYears(),
+                filters.maxYears() == null ? Integer.MAX_VALUE : filters.maxYears(), // No upper bound
+                filters.minDegree().ordinal());
+    }
+
+    // Lowest degree level accepted by any of the requirements, since meeting one of them is enough
+    private static int requiredDegree(List<JobDescription.DegreeRequirement> requirements) {
+        int lowest = NO_DEGREE_REQUIRED;
+        for (JobDescription.DegreeRequirement requirement : requirements) {
+            int level = DegreeLevel.of(requirement.degreeType()).ordinal();
+            lowest = lowest == NO_DEGREE_REQUIRED ? level : Math.min(lowest, level);
+        }
+        return lowest;
+    }
+
+    private static int bitCount(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // Compiles one plan per job, in the jobs' order
+    static ScoringPlan[] of(List<JobDescription> jobs) {
+        ScoringPlan[] plans = new ScoringPlan[jobs.size()];
+        for (int j = 0; j < plans.length; j++) {
+            plans[j] = of(jobs.get(j));
+        }
+        return plans;
+    }
+
+    // Fraction of the required skills matched; a job without required skills scores 0 rather than 0/0
+    double skillScore(double matched) {
+        return requiredSkillCount == 0 ? 0.0 : matched / requiredSkillCount;
+    }
+
+    // Whether some required skills are matched by close spellings, so a plain count of skillBits is not the score
+    boolean hasFuzzySkills() {
+        return fuzzySkillIds.length > 0;
+    }
+
+    // Adds, skill by skill, the best credit the candidate earns for each fuzzy required skill to the exact matches
+    double matchedSkills(int exactMatches, CV candidate) {
+        double matched = exactMatches;
+        int[] candidateIds = candidate.skillIds();
+        for (int g = 0; g < fuzzySkillIds.length; g++) {
+            double best = 0.0;
+            for (int a = 0; a < fuzzySkillIds[g].length; a++) {
+                if (Arrays.binarySearch(candidateIds, fuzzySkillIds[g][a]) >= 0) {
+                    best = Math.max(best, fuzzySkillWeights[g][a]);
+                }
+            }
+            matched += best;
+        }
+        return matched;
+    }
+
+    // Same as matchedSkills(int, CV) for a table row, reading only the skill columns
+    double matchedSkills(int exactMatches, CandidateTable table, int row) {
+        double matched = exactMatches;
+        long[][] skillWords = table.skillWords();
+        for (int g = 0; g < fuzzySkillIds.length; g++) {
+            double best = 0.0;
+            for (int a = 0; a < fuzzySkillIds[g].length; a++) {
+                int id = fuzzySkillIds[g][a];
+                if ((id >>> 6) < skillWords.length && (skillWords[id >>> 6][row] & (1L << id)) != 0) {
+                    best = Math.max(best, fuzzySkillWeights[g][a]);
+                }
+            }
+            matched += best;
+        }
+        return matched;
+    }
+
+    // Education score for a candidate's highest DegreeLevel ordinal: 1 at or above the required level, partial
+    // credit proportional to the level below it, and 0 for every candidate when the job requires no education
+    double educationScore(int degreeLevel) {
+        if (requiredDegree == NO_DEGREE_REQUIRED) {
+            return 0.0;
+        }
+        if (degreeLevel >= requiredDegree) {
+            return 1.0;
+        }
+        return 0.5 * ((double) degreeLevel / requiredDegree);
+    }
+
+    // Whether the job has any hard filter, i.e. whether accepts() can ever return false
+    boolean filtered() {
+        return mustHaveCount > 0 || filterMinYears > 0 || filterMaxYears != Integer.MAX_VALUE || filterMinDegree > 0;
+    }
+
+    // Whether years of experience pass the years filter
+    boolean acceptsYears(int years) {
+        // Unset bounds are skipped rather than compared, so odd data (e.g. negative years) still passes them
+        return (filterMinYears == 0 || years >= filterMinYears) && years <= filterMaxYears;
+    }
+
+    // Whether the candidate passes every hard filter
+    boolean accepts(CV candidate) {
+        return acceptsYears(candidate.getYearsExperience())
+                && candidate.getHighestDegree().ordinal() >= filterMinDegree
+                && (mustHaveCount == 0 || candidate.countSkills(mustHaveBits) == mustHaveCount);
+    }
+
+    // Whether the table row passes every hard filter, reading only the columns
+    boolean accepts(CandidateTable table, int row) {
+        if (!acceptsYears(table.years()[row]) || table.degreeLevels()[row] < filterMinDegree) {
+            return false;
+        }
+        return mustHaveCount == 0 || (mustHaveKnown && hasAllMustHaves(table, row));
+    }
+
+    // Whether the row has every must-have skill; a must-have outside the table's words means nobody has it
+    boolean hasAllMustHaves(CandidateTable table, int row) {
+        long[][] skillWords = table.skillWords();
+        for (int w = 0; w < mustHaveBits.length; w++) {
+            long wanted = mustHaveBits[w];
+            if (wanted == 0) {
+                continue;
+            }
+            if (w >= skillWords.length || (skillWords[w][row] & wanted) != wanted) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
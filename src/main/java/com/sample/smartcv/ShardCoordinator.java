@@ -0,0 +1,231 @@
+package com.sample.smartcv;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+// Scatter-gather over ShardServers: a query is sent to every shard at once, each shard answers with its own top k,
+// and the partial rankings are merged into the k best overall. Shards that fail or miss the deadline are left out
+// and the ranking is flagged as partial instead of failing the whole query. Rows are ordered by score, then by
+// library position. Close spellings of the job's skills are resolved once here, against this process's vocabulary,
+// and sent with the query, so a complete ranking lists exactly what one process ranking the whole library would
+// once this process has seen the library's skills (loading the library does); until then skills match exactly.
+public final class ShardCoordinator implements AutoCloseable {
+    // Logger for shards that failed or timed out
+    private static final Logger logger = Logger.getLogger(ShardCoordinator.class.getName());
+
+    // Time a query waits for the shards when the caller does not configure it
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(2);
+
+    private final List<InetSocketAddress> shards; // Shard i answers for the candidates with shardOf(email) == i
+    private final long timeoutNanos; // Time a query waits for the slowest shard
+    private final List<ConcurrentLinkedQueue<Connection>> idle = new ArrayList<>(); // Per shard: reusable connections
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor(); // One thread per shard call
+
+    // Ranked matches of a query; failedShards lists the shards whose candidates are missing, in shard order
+    public record Ranking(List<CandidateMatch> matches, List<Integer> failedShards, int candidatesSearched) {
+        public Ranking {
+            matches = List.copyOf(matches);
+            failedShards = List.copyOf(failedShards);
+        }
+
+        // Whether some shards did not answer, so better matches may exist among their candidates
+        public boolean isPartial() {
+            return !failedShards.isEmpty();
+        }
+    }
+
+    // Creates a coordinator for shards listed in shard order, with the default timeout
+    public ShardCoordinator(List<InetSocketAddress> shards) {
+        this(shards, DEFAULT_TIMEOUT);
+    }
+
+    // Creates a coordinator for shards listed in shard order; connections are opened on the first query
+    public ShardCoordinator(List<InetSocketAddress> shards, Duration timeout) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one shard");
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        this.shards = List.copyOf(shards);
+        this.timeoutNanos = timeout.toNanos();
+        for (int i = 0; i < shards.size(); i++) {
+            idle.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    // Number of shards queried
+    public int shardCount() {
+        return shards.size();
+    }
+
+    // Asks every shard for its k best matches and merges them into the k best overall, waiting at most the timeout
+    public Ranking analyzeAndRank(JobDescription job, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
+        }
+        byte[] query = ShardProtocol.encodeQuery(job, k); // Encoded once, sent to every shard
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        List<Future<Answer>> calls = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int target = shard;
+            calls.add(executor.submit(() -> call(target, query, deadline)));
+        }
+
+        // Gather until the deadline; a shard still running then is cancelled, which closes its connection
+        List<Answer> answers = new ArrayList<>(shards.size());
+        List<Integer> failed = new ArrayList<>();
+        boolean interrupted = false;
+        for (int shard = 0; shard < calls.size(); shard++) {
+            Future<Answer> call = calls.get(shard);
+            try {
+                if (interrupted) {
+                    throw new TimeoutException("Query was interrupted");
+                }
+                answers.add(call.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                call.cancel(true);
+                failed.add(shard);
+                logger.warning("Shard " + shard + " at " + shards.get(shard) + " missed the deadline");
+            } catch (ExecutionException e) {
+                failed.add(shard);
+                logger.warning("Shard " + shard + " at " + shards.get(shard) + " failed: " + e.getCause());
+            } catch (InterruptedException e) {
+                interrupted = true; // Stop waiting; the remaining shards count as failed
+                call.cancel(true);
+                failed.add(shard);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        int searched = 0;
+        for (Answer answer : answers) {
+            searched += answer.shardSize();
+        }
+        return new Ranking(merge(answers, k), failed, searched);
+    }
+
+    // Closes the pooled connections; calls still running are interrupted
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        executor.close();
+        for (ConcurrentLinkedQueue<Connection> connections : idle) {
+            Connection connection;
+            while ((connection = connections.poll()) != null) {
+                connection.close();
+            }
+        }
+    }
+
+    // Sends the query to one shard over an idle connection, or a new one, and reads its answer. The connection is
+    // reused only after a complete answer, so a timed-out or failed call never leaves a half-read stream behind.
+    private Answer call(int shard, byte[] query, long deadline) throws IOException {
+        Connection connection = idle.get(shard).poll();
+        if (connection == null) {
+            connection = Connection.open(shards.get(shard), remainingMillis(deadline));
+        }
+        try {
+            connection.socket.setSoTimeout(remainingMillis(deadline)); // Backstop in case the call is not cancelled
+            connection.out.write(query);
+            connection.out.flush();
+            int[] shardSize = new int[1];
+            List<ShardProtocol.Row> rows = ShardProtocol.readMatches(connection.in, shardSize);
+            idle.get(shard).offer(connection);
+            return new Answer(rows, shardSize[0]);
+        } catch (IOException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    // K-way merge of the shards' rankings, each already best first: repeatedly takes the best head row, with
+    // ties going to the lower library position like TopKCollector does. Only the kept rows become CVs.
+    private static List<CandidateMatch> merge(List<Answer> answers, int k) {
+        int[] positions = new int[answers.size()]; // Read position inside each shard's rows
+        List<CandidateMatch> merged = new ArrayList<>();
+        while (merged.size() < k) {
+            ShardProtocol.Row best = null;
+            int bestAnswer = -1;
+            for (int i = 0; i < answers.size(); i++) {
+                List<ShardProtocol.Row> rows = answers.get(i).rows();
+                if (positions[i] < rows.size()) {
+                    ShardProtocol.Row head = rows.get(positions[i]);
+                    if (best == null || head.score() > best.score()
+                            || (head.score() == best.score() && head.ordinal() < best.ordinal())) {
+                        best = head;
+                        bestAnswer = i;
+                    }
+                }
+            }
+            if (best == null) {
+                break; // Every shard's rows are used up
+            }
+            positions[bestAnswer]++;
+            merged.add(best.toMatch());
+        }
+        return merged;
+    }
+
+    // Milliseconds left until the deadline, at least 1 since 0 means "no timeout" to sockets
+    private static int remainingMillis(long deadline) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, millis));
+    }
+
+    // Rows of one shard's answer, best first, and the number of candidates the shard holds
+    private record Answer(List<ShardProtocol.Row> rows, int shardSize) {}
+
+    // An open connection to a shard with its buffered streams
+    private static final class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        static Connection open(InetSocketAddress address, int timeoutMillis) throws IOException {
+            Socket socket = new Socket();
+            try {
+                socket.setTcpNoDelay(true); // Queries are single writes; do not wait for more data
+                socket.connect(Objects.requireNonNull(address), timeoutMillis);
+                return new Connection(socket);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.fine("Could not close shard connection: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.sample.smartcv;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static java.lang.System.out;
+
+// End-to-end check of sharded matching on one Linux machine: writes a seeded library to a snapshot, starts
+// one ShardServer process per shard over it, and compares every sharded ranking with WeightedMatchingService
+// ranking the whole library in this process. It then stops one shard with SIGSTOP to check that queries come
+// back partial within the timeout, and resumes it to check that the coordinator recovers.
+//   java com.sample.smartcv.ShardHarness [shards] [candidates]
+// Exits with status 1 when any check fails.
+public final class ShardHarness {
+    private static final long SEED = 42; // Fixed, so every run ranks the same library
+    private static final int K = 50; // Matches asked for per query
+    private static final Duration TIMEOUT = Duration.ofSeconds(5); // Generous: shards score cold on the first query
+    private static final Duration STOPPED_TIMEOUT = Duration.ofMillis(500); // Deadline while a shard is stopped
+    private static final int WARMUP_ROUNDS = 200; // Queries per job before timing, so the shards' JIT has compiled
+
+    // Vocabularies of the generated library
+    private static final String[] SKILLS = {"java", "python", "sql", "docker", "kubernetes", "react", "spring",
+            "kafka", "terraform", "rust", "scala", "graphql", "redis", "linux", "machine learning", "typescript"};
+    // Rare misspellings of "kubernetes", more than SkillResolver.MAX_ALTERNATIVES of them, so a shard resolving
+    // close spellings against its own share of them could credit other alternatives than the whole library does
+    private static final String[] TYPOS = {"kubernets", "kuberntes", "kubernete", "kubernettes", "kubrenetes"};
+    private static final String[] DEGREES = {"Bachelor's", "Master's", "PhD"};
+    private static final String[] FIELDS = {"Computer Science", "Mathematics", "Physics", "Economics"};
+
+    private ShardHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int shards = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        if (shards < 2) {
+            throw new IllegalArgumentException("At least two shards are needed to stop one of them");
+        }
+
+        List<CV> library = generateLibrary(size);
+        Path directory = Files.createTempDirectory("smartcv-shards");
+        Path snapshot = directory.resolve("library.snap");
+        CandidateSnapshot.write(library, snapshot);
+        out.println("Wrote " + size + " candidates to " + snapshot);
+
+        List<Process> processes = new ArrayList<>();
+        int failures = 0;
+        try {
+            List<InetSocketAddress> addresses = new ArrayList<>();
+            for (int shard = 0; shard < shards; shard++) {
+                Process process = startShard(shard, shards, snapshot);
+                processes.add(process);
+                addresses.add(new InetSocketAddress("localhost", awaitPort(process, shard)));
+            }
+            out.println("Started " + shards + " shard processes");
+
+            List<JobDescription> jobs = jobs();
+            MatchingService reference = new WeightedMatchingService();
+            try (ShardCoordinator coordinator = new ShardCoordinator(addresses, TIMEOUT)) {
+                for (JobDescription job : jobs) {
+                    failures += compare(job.getTitle(), coordinator.analyzeAndRank(job, K),
+                            reference.analyzeAndRank(library, job, K), List.of(), size);
+                }
+                failures += reportLatency(coordinator, reference, library, jobs);
+            }
+
+            // A stopped process keeps its connections open but never answers, like a shard stuck in a long pause
+            List<CV> reachable = new ArrayList<>();
+            for (CV candidate : library) {
+                if (ShardServer.shardOf(candidate.getEmail(), shards) != 0) {
+                    reachable.add(candidate);
+                }
+            }
+            try (ShardCoordinator coordinator = new ShardCoordinator(addresses, STOPPED_TIMEOUT)) {
+                coordinator.analyzeAndRank(jobs.get(0), K); // Leaves a pooled connection to every shard
+                signal("STOP", processes.get(0));
+                for (JobDescription job : jobs) {
+                    long started = System.nanoTime();
+                    ShardCoordinator.Ranking ranking = coordinator.analyzeAndRank(job, K);
+                    long millis = (System.nanoTime() - started) / 1_000_000;
+                    failures += compare(job.getTitle() + " (shard 0 stopped)", ranking,
+                            reference.analyzeAndRank(reachable, job, K), List.of(0), reachable.size());
+                    if (millis > STOPPED_TIMEOUT.toMillis() * 2) {
+                        failures++;
+                        out.println("FAIL " + job.getTitle() + ": took " + millis + " ms with a stopped shard");
+                    }
+                }
+                signal("CONT", processes.get(0));
+                for (JobDescription job : jobs) {
+                    failures += compare(job.getTitle() + " (shard 0 resumed)", coordinator.analyzeAndRank(job, K),
+                            reference.analyzeAndRank(library, job, K), List.of(), size);
+                }
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+            for (Process process : processes) {
+                process.waitFor();
+            }
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(directory);
+        }
+
+        out.println(failures == 0 ? "All checks passed" : failures + " check(s) failed");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Seeded library with unique emails, so every candidate lands on exactly one shard
+    private static List<CV> generateLibrary(int size) {
+        Random random = new Random(SEED);
+        List<CV> library = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Set<String> skills = new HashSet<>();
+            int skillCount = 1 + random.nextInt(6);
+            while (skills.size() < skillCount) {
+                skills.add(SKILLS[random.nextInt(SKILLS.length)]);
+            }
+            if (random.nextInt(100) == 0 && skills.remove("kubernetes")) {
+                skills.add(TYPOS[random.nextInt(TYPOS.length)]);
+            }
+            List<CV.Education> education = new ArrayList<>();
+            int degrees = random.nextInt(3);
+            for (int d = 0; d < degrees; d++) {
+                education.add(new CV.Education("University " + random.nextInt(50), DEGREES[d],
+                        FIELDS[random.nextInt(FIELDS.length)], 1995 + random.nextInt(28)));
+            }
+            library.add(new CV("Candidate " + i, "candidate" + i + "@example.com", skills,
+                    random.nextInt(25), education));
+        }
+        return library;
+    }
+
+    // Skill, experience and education searches, with and without hard filters, one of them for a misspelled skill
+    private static List<JobDescription> jobs() {
+        JobDescription.ExperienceRange anyExperience = new JobDescription.ExperienceRange(0, null);
+        return List.of(
+                new JobDescription("Backend", Set.of("java", "sql", "kafka"), anyExperience, List.of()),
+                new JobDescription("Platform", Set.of("docker", "kubernetes", "terraform", "linux"),
+                        new JobDescription.ExperienceRange(3, 10), List.of()),
+                new JobDescription("Misspelled Platform", Set.of("kubernetis", "docker"), anyExperience, List.of()),
+                new JobDescription("Senior Backend", Set.of("java", "spring"),
+                        new JobDescription.ExperienceRange(5, null), List.of(),
+                        new HardFilters(5, 15, DegreeLevel.NONE, Set.of("java"))),
+                new JobDescription("Experience Search", Set.of(), new JobDescription.ExperienceRange(8, 12),
+                        List.of(), HardFilters.yearsBetween(8, 12)),
+                new JobDescription("Education Search", Set.of(), anyExperience,
+                        List.of(new JobDescription.DegreeRequirement("Master's", "Computer Science")),
+                        HardFilters.minDegree(DegreeLevel.of("Master's"))),
+                new JobDescription("Research", Set.of("python", "machine learning"), anyExperience,
+                        List.of(new JobDescription.DegreeRequirement("PhD", "Mathematics"))));
+    }
+
+    // Counts a failure unless the sharded ranking lists the same candidates with the same scores, in the same
+    // order, as the reference, and the expected shards failed
+    private static int compare(String label, ShardCoordinator.Ranking ranking, List<CandidateMatch> expected,
+                               List<Integer> expectedFailures, int expectedSearched) {
+        List<CandidateMatch> actual = ranking.matches();
+        String problem = null;
+        if (!ranking.failedShards().equals(expectedFailures)) {
+            problem = "failed shards " + ranking.failedShards() + ", expected " + expectedFailures;
+        } else if (ranking.candidatesSearched() != expectedSearched) {
+            problem = "searched " + ranking.candidatesSearched() + " candidates, expected " + expectedSearched;
+        } else if (actual.size() != expected.size()) {
+            problem = actual.size() + " matches, expected " + expected.size();
+        } else {
+            for (int i = 0; i < actual.size() && problem == null; i++) {
+                CandidateMatch a = actual.get(i);
+                CandidateMatch e = expected.get(i);
+                if (!a.getCandidate().getEmail().equals(e.getCandidate().getEmail()) || a.getScore() != e.getScore()) {
+                    problem = "rank " + (i + 1) + " is " + a.getCandidate().getEmail() + " (" + a.getScore()
+                            + "), expected " + e.getCandidate().getEmail() + " (" + e.getScore() + ")";
+                }
+            }
+        }
+        out.println((problem == null ? "ok   " : "FAIL ") + label + (ranking.isPartial() ? " [partial]" : "")
+                + (problem == null ? "" : ": " + problem));
+        return problem == null ? 0 : 1;
+    }
+
+    // Prints the median latency of each query, sharded and in process, after both sides have warmed up
+    private static int reportLatency(ShardCoordinator coordinator, MatchingService reference, List<CV> library,
+                                     List<JobDescription> jobs) {
+        int failures = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (JobDescription job : jobs) {
+                coordinator.analyzeAndRank(job, K);
+                reference.analyzeAndRank(library, job, K);
+            }
+        }
+        for (JobDescription job : jobs) {
+            long[] sharded = new long[21];
+            long[] local = new long[sharded.length];
+            for (int i = 0; i < sharded.length; i++) {
+                long started = System.nanoTime();
+                if (coordinator.analyzeAndRank(job, K).isPartial()) {
+                    failures++;
+                }
+                sharded[i] = System.nanoTime() - started;
+                started = System.nanoTime();
+                reference.analyzeAndRank(library, job, K);
+                local[i] = System.nanoTime() - started;
+            }
+            Arrays.sort(sharded);
+            Arrays.sort(local);
+            out.printf("     %-20s sharded %8.2f ms   single process %8.2f ms%n", job.getTitle(),
+                    sharded[sharded.length / 2] / 1e6, local[local.length / 2] / 1e6);
+        }
+        if (failures > 0) {
+            out.println("FAIL " + failures + " latency run(s) came back partial");
+        }
+        return failures;
+    }
+
+    // Starts a shard JVM with this JVM's class path; its log goes to this process's standard error
+    private static Process startShard(int shard, int shards, Path snapshot) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            command.add("--add-modules");
+            command.add("jdk.incubator.vector"); // Same scoring kernel as this process
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("-Dsmartcv.snapshot=" + snapshot);
+        String synonyms = System.getProperty("smartcv.skillSynonyms");
+        if (synonyms != null) {
+            command.add("-Dsmartcv.skillSynonyms=" + synonyms); // Shards must normalize skills like this process
+        }
+        command.add(ShardServer.class.getName());
+        command.add(Integer.toString(shard));
+        command.add(Integer.toString(shards));
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    // Reads the "LISTENING <port>" line a shard prints once it accepts connections
+    private static int awaitPort(Process process, int shard) throws IOException {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.startsWith("LISTENING ")) {
+                return Integer.parseInt(line.substring("LISTENING ".length()).trim());
+            }
+        }
+        throw new IOException("Shard " + shard + " exited before listening");
+    }
+
+    // Sends a signal such as STOP or CONT to a shard process
+    private static void signal(String name, Process process) throws IOException, InterruptedException {
+        int status = new ProcessBuilder("kill", "-" + name, Long.toString(process.pid())).inheritIO().start().waitFor();
+        if (status != 0) {
+            throw new IOException("kill -" + name + " " + process.pid() + " failed with status " + status);
+        }
+    }
+}
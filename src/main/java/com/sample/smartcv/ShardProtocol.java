@@ -0,0 +1,219 @@
+package com.sample.smartcv;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Binary messages between a ShardCoordinator and its ShardServers, written with DataOutputStream. Strings are
+// written as a length and UTF-8 bytes rather than with writeUTF, whose 64 KB limit a long title or skill would
+// hit. A connection carries any number of request/response pairs, one at a time:
+//   request:  VERSION, k, job (title, skills, experience range, education, hard filters, close spellings)
+//   response: OK, shard size, row count, rows (ordinal, score, CV fields) best first
+//          or ERROR, message
+// Candidates are identified by their ordinal in the unsharded library, so the coordinator can break score ties
+// exactly like a single process would. Close spellings of the required skills are resolved once by the
+// coordinator and sent with the job, so every shard credits the same alternatives with the same weights.
+final class ShardProtocol {
+    static final int VERSION = 3; // Sent first in every request; bumped whenever a message changes
+    static final byte OK = 0; // Response status: rows follow
+    static final byte ERROR = 1; // Response status: a message follows
+
+    private static final int NO_MAX_YEARS = -1; // Stands for a null maxYears
+    private static final int MAX_STRING_BYTES = 1 << 24; // Longer strings are taken as a corrupt stream
+
+    private ShardProtocol() {
+    }
+
+    // One ranked candidate of a shard's answer; the CV is built only if the row makes it into the merged ranking
+    record Row(int ordinal, double score, String name, String email, List<String> skills, int yearsExperience,
+               List<CV.Education> education) {
+        CandidateMatch toMatch() {
+            return new CandidateMatch(new CV(name, email, new HashSet<>(skills), yearsExperience, education), score);
+        }
+    }
+
+    // Encodes a query once, so the same bytes can be sent to every shard
+    static byte[] encodeQuery(JobDescription job, int k) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(VERSION);
+            out.writeInt(k);
+            writeString(out, job.getTitle());
+            writeStrings(out, job.getRequiredSkillsView());
+            out.writeInt(job.getRequiredExperience().minYears());
+            writeMaxYears(out, job.getRequiredExperience().maxYears());
+            List<JobDescription.DegreeRequirement> education = job.getRequiredEducationView();
+            out.writeInt(education.size());
+            for (JobDescription.DegreeRequirement requirement : education) {
+                writeString(out, requirement.degreeType());
+                writeString(out, requirement.field() == null ? "" : requirement.field());
+            }
+            HardFilters filters = job.getHardFilters();
+            out.writeInt(filters.minYears());
+            writeMaxYears(out, filters.maxYears());
+            writeString(out, filters.minDegree().name());
+            writeStrings(out, filters.mustHaveSkills());
+            Map<String, Map<String, Double>> closeSpellings = job.closeSpellings();
+            out.writeInt(closeSpellings.size());
+            for (Map.Entry<String, Map<String, Double>> skill : closeSpellings.entrySet()) {
+                writeString(out, skill.getKey());
+                out.writeInt(skill.getValue().size());
+                for (Map.Entry<String, Double> alternative : skill.getValue().entrySet()) { // Best first
+                    writeString(out, alternative.getKey());
+                    out.writeDouble(alternative.getValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new AssertionError("Writing to memory cannot fail", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Reads the k of a query whose VERSION was already read
+    static int readK(DataInputStream in) throws IOException {
+        int k = in.readInt();
+        if (k < 0) {
+            throw new IOException("Negative k in query");
+        }
+        return k;
+    }
+
+    // Reads the job of a query after its k; invalid jobs throw IllegalArgumentException like the constructor does
+    static JobDescription readJob(DataInputStream in) throws IOException {
+        String title = readString(in);
+        Set<String> skills = new HashSet<>(readStrings(in));
+        JobDescription.ExperienceRange experience = new JobDescription.ExperienceRange(in.readInt(), readMaxYears(in));
+        int educationCount = in.readInt();
+        List<JobDescription.DegreeRequirement> education = new ArrayList<>(educationCount);
+        for (int i = 0; i < educationCount; i++) {
+            education.add(new JobDescription.DegreeRequirement(readString(in), readString(in)));
+        }
+        int minYears = in.readInt();
+        Integer maxYears = readMaxYears(in);
+        DegreeLevel minDegree = DegreeLevel.valueOf(readString(in));
+        HardFilters filters = new HardFilters(minYears, maxYears, minDegree, new HashSet<>(readStrings(in)));
+        int fuzzyCount = in.readInt();
+        Map<String, Map<String, Double>> closeSpellings = new LinkedHashMap<>();
+        for (int i = 0; i < fuzzyCount; i++) {
+            String skill = readString(in);
+            int alternativeCount = in.readInt();
+            Map<String, Double> alternatives = new LinkedHashMap<>();
+            for (int a = 0; a < alternativeCount; a++) {
+                alternatives.put(readString(in), in.readDouble());
+            }
+            closeSpellings.put(skill, alternatives);
+        }
+        return new JobDescription(title, skills, experience, education, filters, closeSpellings);
+    }
+
+    // Writes a successful answer: matches are the shard's top k, ordinals their positions in the whole library
+    static void writeMatches(DataOutputStream out, int shardSize, List<CandidateMatch> matches, int[] ordinals)
+            throws IOException {
+        out.writeByte(OK);
+        out.writeInt(shardSize);
+        out.writeInt(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            CV candidate = matches.get(i).getCandidate();
+            out.writeInt(ordinals[i]);
+            out.writeDouble(matches.get(i).getScore());
+            writeString(out, candidate.getName());
+            writeString(out, candidate.getEmail());
+            writeStrings(out, candidate.getSkillsView());
+            out.writeInt(candidate.getYearsExperience());
+            out.writeInt(candidate.getEducationView().size());
+            for (CV.Education entry : candidate.getEducationView()) {
+                writeString(out, entry.institution());
+                writeString(out, entry.degree());
+                writeString(out, entry.field());
+                out.writeInt(entry.graduationYear());
+            }
+        }
+    }
+
+    // Writes a failed answer
+    static void writeError(DataOutputStream out, String message) throws IOException {
+        out.writeByte(ERROR);
+        writeString(out, message == null ? "Query failed" : message);
+    }
+
+    // Reads an answer; the shard size is stored in sizeHolder[0]; an ERROR answer throws with the shard's message
+    static List<Row> readMatches(DataInputStream in, int[] sizeHolder) throws IOException {
+        byte status = in.readByte();
+        if (status == ERROR) {
+            throw new IOException("Shard failed: " + readString(in));
+        }
+        if (status != OK) {
+            throw new IOException("Unknown response status " + status);
+        }
+        sizeHolder[0] = in.readInt();
+        int count = in.readInt();
+        List<Row> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int ordinal = in.readInt();
+            double score = in.readDouble();
+            String name = readString(in);
+            String email = readString(in);
+            List<String> skills = readStrings(in);
+            int years = in.readInt();
+            int educationCount = in.readInt();
+            List<CV.Education> education = new ArrayList<>(educationCount);
+            for (int e = 0; e < educationCount; e++) {
+                education.add(new CV.Education(readString(in), readString(in), readString(in), in.readInt()));
+            }
+            rows.add(new Row(ordinal, score, name, email, skills, years, education));
+        }
+        return rows;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes exceeds the shard protocol limit");
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, Set<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeMaxYears(DataOutputStream out, Integer maxYears) throws IOException {
+        out.writeInt(maxYears == null ? NO_MAX_YEARS : maxYears);
+    }
+
+    private static Integer readMaxYears(DataInputStream in) throws IOException {
+        int maxYears = in.readInt();
+        return maxYears == NO_MAX_YEARS ? null : maxYears;
+    }
+}
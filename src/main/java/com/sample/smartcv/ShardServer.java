@@ -0,0 +1,269 @@
+package com.sample.smartcv;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.lang.System.getProperty;
+import static java.lang.System.out;
+
+// One shard of a library split across JVMs: holds only the candidates whose email hashes to it and answers
+// top-k queries from a ShardCoordinator over the ShardProtocol. Every shard reads the same source and keeps its
+// own share, so a library larger than one heap is spread over several processes:
+//   java -Dsmartcv.snapshot=library.snap com.sample.smartcv.ShardServer <shard> <shards> [port]
+// Once listening, the server prints "LISTENING <port>" on standard output; logging goes to standard error.
+public final class ShardServer implements AutoCloseable {
+    // Logger for connection failures and lifecycle events
+    private static final Logger logger = Logger.getLogger(ShardServer.class.getName());
+
+    private final int shard; // Index of this shard, from 0
+    private final List<CV> candidates; // Candidates of this shard, in library order
+    private final Map<CV, Integer> ordinals; // Candidate -> its position in the whole library
+    private final MatchingService matcher; // Ranks this shard's candidates
+    private final ServerSocket socket; // Accepts coordinator connections
+    private final ExecutorService executor; // One virtual thread per connection, plus the accepting one
+
+    // Creates a server for a shard; ordinals[i] is the library position of candidates.get(i), which must not change
+    // afterwards; port 0 picks a free port
+    public ShardServer(int shard, List<CV> candidates, int[] ordinals, MatchingService matcher, int port)
+            throws IOException {
+        if (candidates.size() != ordinals.length) {
+            throw new IllegalArgumentException("Every candidate needs exactly one ordinal");
+        }
+        for (int i = 1; i < ordinals.length; i++) {
+            if (ordinals[i] <= ordinals[i - 1]) {
+                throw new IllegalArgumentException("Ordinals must be increasing, like the library order");
+            }
+        }
+        this.shard = shard;
+        this.candidates = candidates; // Kept as given: matchers built over this list reuse their tables
+        this.ordinals = new IdentityHashMap<>(candidates.size());
+        for (int i = 0; i < ordinals.length; i++) {
+            this.ordinals.put(candidates.get(i), ordinals[i]);
+        }
+        this.matcher = Objects.requireNonNull(matcher);
+        this.socket = new ServerSocket();
+        socket.bind(new InetSocketAddress(port));
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    // Shard owning the candidate with this (normalized) email; stable across JVMs and runs
+    public static int shardOf(String email, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("There must be at least one shard");
+        }
+        // String.hashCode is fixed by the language spec; the MurmurHash3 finalizer spreads similar emails apart
+        int hash = email.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shards);
+    }
+
+    // Starts accepting connections
+    public void start() {
+        executor.submit(this::acceptConnections);
+        logger.info("Shard " + shard + " serving " + candidates.size() + " candidates on port " + port());
+    }
+
+    // Port the server is bound to
+    public int port() {
+        return socket.getLocalPort();
+    }
+
+    // Number of candidates held by this shard
+    public int size() {
+        return candidates.size();
+    }
+
+    // Stops accepting connections and drops the open ones
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.fine("Could not close shard socket: " + e.getMessage());
+        }
+        executor.shutdownNow();
+        executor.close();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: ShardServer <shard> <shards> [port]"
+                    + " with -Dsmartcv.snapshot=<file> or -Dsmartcv.import=<file or directory>");
+            System.exit(2);
+        }
+        int shard = Integer.parseInt(args[0]);
+        int shards = Integer.parseInt(args[1]);
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        if (shard < 0 || shard >= shards) {
+            throw new IllegalArgumentException("Shard must be between 0 and " + (shards - 1));
+        }
+
+        List<CV> candidates = new ArrayList<>();
+        int[] ordinals = loadShard(shard, shards, candidates);
+        // Scores from primitive columns like the CLI's full scans; hard filters are planned over the shard's indexes
+        MatchingService matcher = new QueryPlanner(new ColumnarMatchingService(candidates));
+        ShardServer server = new ShardServer(shard, candidates, ordinals, matcher, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
+        out.println("LISTENING " + server.port());
+        out.flush();
+        Thread.currentThread().join(); // The connection threads do the work; stop with Ctrl+C or SIGTERM
+    }
+
+    // Reads the library named by -Dsmartcv.snapshot or -Dsmartcv.import, adds this shard's candidates to the
+    // list and returns their library positions. A random sample library cannot be split consistently, so one
+    // of the two is required.
+    private static int[] loadShard(int shard, int shards, List<CV> candidates) throws IOException {
+        Positions positions = new Positions();
+        String snapshotPath = getProperty("smartcv.snapshot");
+        if (snapshotPath != null) {
+            // Emails are read straight from the mapped column; only this shard's candidates are decoded
+            CandidateSnapshot snapshot = CandidateSnapshot.open(Path.of(snapshotPath));
+            for (int ordinal = 0; ordinal < snapshot.size(); ordinal++) {
+                if (shardOf(snapshot.email(ordinal), shards) == shard) {
+                    candidates.add(snapshot.candidate(ordinal));
+                    positions.add(ordinal);
+                }
+            }
+            return positions.toArray();
+        }
+
+        String importPath = getProperty("smartcv.import");
+        if (importPath == null) {
+            throw new IllegalArgumentException("Set -Dsmartcv.snapshot or -Dsmartcv.import to the library to shard");
+        }
+        // Every shard ingests the whole source with the CLI's deduplication and keeps what hashes to it. The
+        // pipeline appends in input order and the deduplicator is deterministic, so all shards agree on the library
+        // order and on which records were merged, as long as every shard reads the same files
+        Path source = Path.of(importPath);
+        IngestionPipeline pipeline = new IngestionPipeline(new StreamingResumeParser());
+        int[] libraryPosition = {0};
+        Consumer<CV> keep = candidate -> {
+            if (shardOf(candidate.getEmail(), shards) == shard) {
+                candidates.add(candidate);
+                positions.add(libraryPosition[0]);
+            }
+            libraryPosition[0]++;
+        };
+        Consumer<IngestionError> skipped = error -> logger.fine("Skipped " + error);
+        Consumer<Deduplicator.Decision> merged = decision -> logger.fine("Merged " + decision);
+        try {
+            IngestionReport report = Files.isDirectory(source)
+                    ? pipeline.ingestDirectory(source, keep, skipped, new Deduplicator(), merged)
+                    : pipeline.ingestCorpus(source, keep, skipped, new Deduplicator(), merged);
+            logger.info("Shard " + shard + " imported " + source + ": " + report);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Candidate import was interrupted", e);
+        }
+        return positions.toArray();
+    }
+
+    // Hands every accepted connection to its own virtual thread until the socket is closed
+    private void acceptConnections() {
+        while (!socket.isClosed()) {
+            try {
+                Socket connection = socket.accept();
+                executor.submit(() -> serve(connection));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    logger.log(Level.WARNING, "Shard " + shard + " could not accept a connection", e);
+                }
+            }
+        }
+    }
+
+    // Answers the queries of one connection in order until the coordinator closes it
+    private void serve(Socket connection) {
+        try (connection) {
+            connection.setTcpNoDelay(true); // Responses are single writes; do not wait for more data
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            DataOutputStream response = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream(), 64 * 1024));
+            while (true) {
+                int version;
+                try {
+                    version = in.readInt();
+                } catch (EOFException e) {
+                    return; // The coordinator closed the connection
+                }
+                if (version != ShardProtocol.VERSION) {
+                    ShardProtocol.writeError(response, "Unsupported protocol version " + version);
+                    response.flush();
+                    return; // The rest of the message cannot be parsed
+                }
+                int k = ShardProtocol.readK(in);
+                JobDescription job;
+                try {
+                    job = ShardProtocol.readJob(in);
+                } catch (IllegalArgumentException e) {
+                    ShardProtocol.writeError(response, e.getMessage());
+                    response.flush();
+                    continue; // The whole message was read, so the connection stays usable
+                }
+                answer(response, job, k);
+                response.flush();
+            }
+        } catch (IOException e) {
+            logger.fine("Shard " + shard + " dropped a connection: " + e.getMessage()); // Coordinator went away
+        }
+    }
+
+    // Ranks this shard's candidates and writes the top k with their library positions
+    private void answer(DataOutputStream response, JobDescription job, int k) throws IOException {
+        List<CandidateMatch> matches;
+        try {
+            matches = matcher.analyzeAndRank(candidates, job, k);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Shard " + shard + " query failed: " + job.getTitle(), e);
+            ShardProtocol.writeError(response, "Query failed on shard " + shard);
+            return;
+        }
+        // Matches hand back the shard's own CV instances, so their positions are found by identity
+        int[] matchOrdinals = new int[matches.size()];
+        for (int i = 0; i < matches.size(); i++) {
+            matchOrdinals[i] = ordinals.get(matches.get(i).getCandidate());
+        }
+        ShardProtocol.writeMatches(response, candidates.size(), matches, matchOrdinals);
+    }
+
+    // Growable list of library positions without boxing
+    private static final class Positions {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int position) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = position;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
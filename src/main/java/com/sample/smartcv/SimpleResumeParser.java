@@ -19,6 +19,14 @@ public class SimpleResumeParser implements ResumeParser {
 
     @Override
     public CV parse(String rawText) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        long started = Metrics.start();
+        return ParseEvent.finish(event, started, this, rawText, extract(rawText));
+    }
+
+    // Runs every pattern over the text and builds the CV from what they found
+    private CV extract(String rawText) {
         // Extract the candidate's name using the defined pattern
         Matcher nameMatcher = NAME_PATTERN.matcher(rawText);
         String name = nameMatcher.find() ? nameMatcher.group(1) : "Unknown"; // Default to "Unknown" if no name is found
@@ -0,0 +1,190 @@
+package com.sample.smartcv;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class SkillDictionary {
+    // Dictionary shared by every CV and JobDescription, so skill ids are comparable across them
+    private static final SkillDictionary GLOBAL = new SkillDictionary();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>(); // Normalized skill -> dense id
+    private volatile String[] skills = new String[64]; // Dense id -> normalized skill
+    private volatile int size; // Number of skills interned so far
+
+    // Returns the application-wide dictionary
+    public static SkillDictionary global() {
+        return GLOBAL;
+    }
+
+    // Normalizes a skill the same way CVs always have (trim, lowercase), then maps synonyms to their canonical
+    // name (see SkillSynonyms); blank skills normalize to null
+    public static String normalize(String skill) {
+        if (skill == null || skill.isBlank()) {
+            return null;
+        }
+        return SkillSynonyms.global().canonical(skill.trim().toLowerCase());
+    }
+
+    // Returns the id of the skill, assigning the next free id if it has not been seen before (-1 for blank skills)
+    public int intern(String skill) {
+        String normalized = normalize(skill);
+        if (normalized == null) {
+            return -1;
+        }
+        Integer id = ids.get(normalized);
+        return id != null ? id : register(normalized);
+    }
+
+    // Returns the id of the skill, or -1 if it is blank or has never been interned
+    public int lookup(String skill) {
+        String normalized = normalize(skill);
+        if (normalized == null) {
+            return -1;
+        }
+        Integer id = ids.get(normalized);
+        return id != null ? id : -1;
+    }
+
+    // Returns the normalized skill for an id
+    public String skill(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown skill id: " + id);
+        }
+        return skills[id];
+    }
+
+    // Number of distinct skills interned so far
+    public int size() {
+        return size;
+    }
+
+    // Interns every skill and returns the ids sorted and without duplicates
+    public int[] encode(Collection<String> skillNames) {
+        return encode(skillNames, true);
+    }
+
+    // Looks every skill up without interning it and returns the known ids sorted and without duplicates. Meant for
+    // queries: a skill no candidate has cannot match anything, and interning it would grow the dictionary forever.
+    public int[] lookupAll(Collection<String> skillNames) {
+        return encode(skillNames, false);
+    }
+
+    private int[] encode(Collection<String> skillNames, boolean intern) {
+        int[] encoded = new int[skillNames.size()];
+        int count = 0;
+        for (String skill : skillNames) {
+            int id = intern ? intern(skill) : lookup(skill);
+            if (id >= 0) {
+                encoded[count++] = id;
+            }
+        }
+        Arrays.sort(encoded, 0, count);
+
+        // Drop duplicates left behind by skills that only differed in case or whitespace
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || encoded[unique - 1] != encoded[i]) {
+                encoded[unique++] = encoded[i];
+            }
+        }
+        return unique == encoded.length ? encoded : Arrays.copyOf(encoded, unique);
+    }
+
+    // Converts encoded ids back into a new set of skill strings
+    public Set<String> decode(int[] skillIds) {
+        Set<String> decoded = new HashSet<>(skillIds.length * 2);
+        for (int id : skillIds) {
+            decoded.add(skill(id));
+        }
+        return decoded;
+    }
+
+    // Read-only set view over sorted encoded ids; nothing is copied, skills are resolved while iterating
+    public Set<String> view(int[] skillIds) {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return skillIds.length;
+            }
+
+            @Override
+            public boolean contains(Object skill) {
+                if (!(skill instanceof String name)) {
+                    return false;
+                }
+                int id = lookup(name);
+                return id >= 0 && Arrays.binarySearch(skillIds, id) >= 0;
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<>() {
+                    private int next; // Position of the next id to resolve
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < skillIds.length;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (next >= skillIds.length) {
+                            throw new NoSuchElementException();
+                        }
+                        return skill(skillIds[next++]);
+                    }
+                };
+            }
+        };
+    }
+
+    // Converts sorted ids into a bitset, one bit per skill id
+    public static long[] toBits(int[] skillIds) {
+        if (skillIds.length == 0) {
+            return new long[0];
+        }
+        long[] bits = new long[(skillIds[skillIds.length - 1] >>> 6) + 1];
+        for (int id : skillIds) {
+            bits[id >>> 6] |= 1L << id;
+        }
+        return bits;
+    }
+
+    // Counts how many ids have their bit set, i.e. the size of the overlap between the two skill sets
+    public static int countOverlap(int[] skillIds, long[] bits) {
+        int count = 0;
+        for (int id : skillIds) {
+            int word = id >>> 6;
+            if (word >= bits.length) {
+                break; // Ids are sorted, so every remaining id lies beyond the bitset as well
+            }
+            count += (int) ((bits[word] >>> id) & 1L);
+        }
+        return count;
+    }
+
+    // Assigns a new id under the lock; the fast path in intern() stays lock-free
+    private synchronized int register(String normalized) {
+        Integer existing = ids.get(normalized);
+        if (existing != null) {
+            return existing; // Another thread registered it while we waited for the lock
+        }
+        int id = size;
+        String[] current = skills;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, id * 2);
+        }
+        current[id] = normalized;
+        skills = current;
+        size = id + 1;
+        ids.put(normalized, id); // Publish the id last, once skill(id) can already resolve it
+        return id;
+    }
+}
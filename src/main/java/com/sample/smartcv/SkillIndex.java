@@ -0,0 +1,140 @@
+package com.sample.smartcv;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+public final class SkillIndex implements SkillPostings {
+    private static final int[] EMPTY_POSTING = new int[0]; // Shared posting list for skills nobody has
+
+    private final List<CV> candidates; // The candidate list this index was built from
+    private final int[][] postings; // Skill dictionary id -> sorted candidate ordinals
+
+    // Builds the index by walking the candidate list once and recording each candidate's ordinal under its skills
+    public SkillIndex(List<CV> candidates) {
+        this(candidates, ordinal -> candidates.get(ordinal).skillIds());
+    }
+
+    // Builds the index straight from a snapshot's skill column, without decoding any CV
+    public static SkillIndex of(CandidateSnapshot snapshot) {
+        return new SkillIndex(snapshot.asList(), snapshot::skillIds);
+    }
+
+    private SkillIndex(List<CV> candidates, IntFunction<int[]> skillIdsByOrdinal) {
+        this.candidates = candidates;
+
+        // First collect ordinals into growable buffers, one per skill id
+        IntBuffer[] buffers = new IntBuffer[SkillDictionary.global().size()];
+        for (int ordinal = 0; ordinal < candidates.size(); ordinal++) {
+            for (int id : skillIdsByOrdinal.apply(ordinal)) {
+                if (id >= buffers.length) {
+                    buffers = Arrays.copyOf(buffers, Math.max(id + 1, buffers.length * 2)); // Skill interned meanwhile
+                }
+                if (buffers[id] == null) {
+                    buffers[id] = new IntBuffer();
+                }
+                buffers[id].add(ordinal);
+            }
+        }
+
+        // Then trim every buffer into an exact-size array; ordinals were appended in order so they are already sorted
+        int[][] postings = new int[buffers.length][];
+        for (int id = 0; id < buffers.length; id++) {
+            postings[id] = buffers[id] == null ? EMPTY_POSTING : buffers[id].toArray();
+        }
+        this.postings = postings;
+    }
+
+    // Getter for the candidate list the ordinals refer to
+    public List<CV> getCandidates() {
+        return candidates;
+    }
+
+    // Returns the sorted ordinals of candidates having the skill (never null, may be empty)
+    public int[] posting(String skill) {
+        return posting(SkillDictionary.global().lookup(skill));
+    }
+
+    // Returns the sorted ordinals of candidates having the skill id (never null, may be empty)
+    @Override
+    public int[] posting(int skillId) {
+        return skillId >= 0 && skillId < postings.length ? postings[skillId] : EMPTY_POSTING;
+    }
+
+    // Number of candidates having the skill
+    public int frequency(String skill) {
+        return posting(skill).length;
+    }
+
+    // Merges the posting lists of the given skills and reports every candidate found in at least one of them,
+    // together with how many of the lists contain it. Ordinals are reported in ascending order.
+    @Override
+    public int countMatches(List<String> skills, MatchConsumer consumer) {
+        int[][] lists = new int[skills.size()][];
+        int[] lengths = new int[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = posting(skills.get(i));
+            lengths[i] = lists[i].length;
+        }
+        return merge(lists, lengths, consumer);
+    }
+
+    // Ordinal space of countMatches: the candidate list itself
+    @Override
+    public List<CV> ordinals() {
+        return candidates;
+    }
+
+    // K-way merge over sorted posting lists, of which only the first lengths[i] entries of list i are read
+    static int merge(int[][] lists, int[] lengths, MatchConsumer consumer) {
+        int[] positions = new int[lists.length]; // Read position inside each posting list
+        int hits = 0;
+
+        while (true) {
+            // Find the smallest ordinal still pending across all lists
+            int next = Integer.MAX_VALUE;
+            for (int i = 0; i < lists.length; i++) {
+                if (positions[i] < lengths[i] && lists[i][positions[i]] < next) {
+                    next = lists[i][positions[i]];
+                }
+            }
+            if (next == Integer.MAX_VALUE) {
+                return hits; // Every list is exhausted
+            }
+
+            // Advance every list sitting on that ordinal and count how many did
+            int count = 0;
+            for (int i = 0; i < lists.length; i++) {
+                if (positions[i] < lengths[i] && lists[i][positions[i]] == next) {
+                    positions[i]++;
+                    count++;
+                }
+            }
+            consumer.accept(next, count);
+            hits++;
+        }
+    }
+
+    // Callback receiving a candidate ordinal and the number of matched posting lists
+    @FunctionalInterface
+    public interface MatchConsumer {
+        void accept(int ordinal, int matchedCount);
+    }
+
+    // Minimal growable int array used while building posting lists
+    private static final class IntBuffer {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.sample.smartcv;
+
+import java.util.List;
+
+// Skill posting lists over some ordinal space, as consumed by IndexedMatchingService
+interface SkillPostings {
+    // List resolving the ordinals reported by countMatches; ordinals must follow the candidates' ranking tie order
+    List<CV> ordinals();
+
+    // Ordinals of the candidates having the skill, ascending; the array may be shared, so callers must not modify it
+    int[] posting(int skillId);
+
+    // Reports, in ascending ordinal order, every candidate having at least one of the skills and how many it has
+    int countMatches(List<String> skills, SkillIndex.MatchConsumer consumer);
+}
@@ -0,0 +1,173 @@
+package com.sample.smartcv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Resolves a query skill into a weighted set of canonical skills, once per query: the skill itself (after
+// synonyms) with weight 1, plus close spellings from the vocabulary, such as "kubernets" for "kubernetes", weighted
+// by their similarity. A trigram index over the candidates' vocabulary picks the few skills worth comparing, so
+// resolving never runs edit distance against every skill, and scoring itself stays an exact id lookup.
+public final class SkillResolver {
+    // Skills less similar than this are not considered the same skill
+    static final double MIN_SIMILARITY = 0.8;
+    // Most close spellings added for one query skill
+    static final int MAX_ALTERNATIVES = 3;
+
+    private static final SkillResolver GLOBAL = new SkillResolver(SkillDictionary.global());
+    private static final int[] NO_IDS = new int[0];
+
+    private final SkillDictionary dictionary; // Vocabulary the alternatives are drawn from
+    private volatile TrigramIndex index = new TrigramIndex(0, Map.of()); // Replaced whole when the vocabulary grows
+
+    // Creates a resolver over a dictionary; skills interned later are indexed when the next query resolves
+    public SkillResolver(SkillDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    // Returns the resolver over the application-wide dictionary
+    public static SkillResolver global() {
+        return GLOBAL;
+    }
+
+    // Canonical skills a query skill stands for, best first, with weights in (0, 1]; empty for blank skills.
+    // A skill missing from the vocabulary is left out, so the map may only hold its close spellings.
+    public Map<String, Double> resolve(String skill) {
+        WeightedSkills resolved = resolveIds(skill);
+        Map<String, Double> weighted = new LinkedHashMap<>();
+        for (int i = 0; i < resolved.ids().length; i++) {
+            if (resolved.ids()[i] >= 0) {
+                weighted.put(dictionary.skill(resolved.ids()[i]), resolved.weights()[i]);
+            }
+        }
+        return weighted;
+    }
+
+    // Same as resolve(), as dictionary ids; the exact skill comes first with weight 1, with id -1 when no candidate
+    // has it. Only looks skills up, so queries never add vocabulary, and reads an immutable index without locking.
+    WeightedSkills resolveIds(String skill) {
+        String target = SkillDictionary.normalize(skill);
+        if (target == null) {
+            return new WeightedSkills(new int[0], new double[0]);
+        }
+        int exact = dictionary.lookup(target);
+        TrigramIndex current = currentIndex();
+
+        // Skills sharing no trigram differ in every position and are never within the similarity bound
+        Set<Integer> shared = new HashSet<>();
+        for (String trigram : trigrams(target)) {
+            for (int id : current.idsByTrigram().getOrDefault(trigram, NO_IDS)) {
+                shared.add(id);
+            }
+        }
+
+        // Verify the candidates with the edit distance, skipping lengths that cannot get close enough: the
+        // length difference is a lower bound of the distance
+        List<double[]> alternatives = new ArrayList<>(); // {id, similarity}
+        for (int id : shared) {
+            String other = dictionary.skill(id);
+            int longer = Math.max(other.length(), target.length());
+            if (id == exact || 1.0 - (double) Math.abs(other.length() - target.length()) / longer < MIN_SIMILARITY) {
+                continue;
+            }
+            double similarity = similarity(target, other);
+            if (similarity >= MIN_SIMILARITY) {
+                alternatives.add(new double[] {id, similarity});
+            }
+        }
+        // Most similar first; equal similarities by id, so a query always resolves the same way
+        alternatives.sort((a, b) -> a[1] != b[1] ? Double.compare(b[1], a[1]) : Double.compare(a[0], b[0]));
+
+        int count = 1 + Math.min(MAX_ALTERNATIVES, alternatives.size());
+        int[] ids = new int[count];
+        double[] weights = new double[count];
+        ids[0] = exact;
+        weights[0] = 1.0;
+        for (int i = 1; i < count; i++) {
+            ids[i] = (int) alternatives.get(i - 1)[0];
+            weights[i] = alternatives.get(i - 1)[1];
+        }
+        return new WeightedSkills(ids, weights);
+    }
+
+    // 1 minus the edit distance (with adjacent transpositions) relative to the longer skill, in [0, 1]
+    static double similarity(String a, String b) {
+        int longer = Math.max(a.length(), b.length());
+        return longer == 0 ? 1.0 : 1.0 - (double) editDistance(a, b) / longer;
+    }
+
+    // Optimal string alignment distance: insertions, deletions, substitutions and swaps of neighbours
+    private static int editDistance(String a, String b) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int best = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    best = Math.min(best, previous2[j - 2] + 1);
+                }
+                current[j] = best;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    // Distinct trigrams of a skill, padded so that its first and last letters form trigrams of their own
+    private static Set<String> trigrams(String skill) {
+        String padded = "  " + skill + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    // The trigram index over the whole vocabulary; rebuilt by one thread at a time when skills were interned since
+    private TrigramIndex currentIndex() {
+        TrigramIndex current = index;
+        if (current.size() == dictionary.size()) {
+            return current;
+        }
+        synchronized (this) {
+            current = index;
+            int size = dictionary.size();
+            if (current.size() < size) {
+                // Copy the lists that gain ids; readers of the previous index never see a change
+                Map<String, int[]> idsByTrigram = new HashMap<>(current.idsByTrigram());
+                for (int id = current.size(); id < size; id++) {
+                    for (String trigram : trigrams(dictionary.skill(id))) {
+                        int[] ids = idsByTrigram.getOrDefault(trigram, NO_IDS);
+                        ids = Arrays.copyOf(ids, ids.length + 1);
+                        ids[ids.length - 1] = id;
+                        idsByTrigram.put(trigram, ids);
+                    }
+                }
+                current = new TrigramIndex(size, idsByTrigram);
+                index = current;
+            }
+            return current;
+        }
+    }
+
+    // Trigram -> ids of the skills containing it, for the dictionary ids below size
+    private record TrigramIndex(int size, Map<String, int[]> idsByTrigram) {}
+
+    // Dictionary ids with their weights, in the same order
+    record WeightedSkills(int[] ids, double[] weights) {}
+}
@@ -0,0 +1,114 @@
+package com.sample.smartcv;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+// Table mapping alternative spellings of a skill to one canonical name, e.g. "postgres" and "pg" to "postgresql".
+// SkillDictionary applies it while normalizing, so CVs and jobs store and compare canonical skills only.
+// Each line reads "canonical: alias, alias"; blank lines and lines starting with '#' are ignored.
+public final class SkillSynonyms {
+    // Built-in table on the classpath, used unless -Dsmartcv.skillSynonyms names another file
+    private static final String DEFAULT_TABLE = "skill-synonyms.txt";
+
+    // An empty table: every skill is its own canonical name
+    public static final SkillSynonyms NONE = new SkillSynonyms(Map.of());
+
+    private final Map<String, String> canonicalByAlias; // Normalized alias -> normalized canonical name
+
+    private SkillSynonyms(Map<String, String> canonicalByAlias) {
+        this.canonicalByAlias = Map.copyOf(canonicalByAlias);
+    }
+
+    // Returns the table used by the skill dictionary; loaded once, since ids depend on it
+    public static SkillSynonyms global() {
+        return Holder.GLOBAL;
+    }
+
+    // Reads a table; an alias listed under two canonical names, or a canonical name that is itself an alias,
+    // is rejected, so resolving a skill never takes more than one step
+    public static SkillSynonyms parse(Reader reader) throws IOException {
+        Map<String, String> canonicalByAlias = new HashMap<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            String text = line.trim();
+            if (text.isEmpty() || text.startsWith("#")) {
+                continue;
+            }
+            int colon = text.indexOf(':');
+            String canonical = colon < 0 ? null : clean(text.substring(0, colon));
+            if (canonical == null) {
+                throw new IllegalArgumentException("Line " + number + " must read 'canonical: alias, alias'");
+            }
+            for (String entry : text.substring(colon + 1).split(",")) {
+                String alias = clean(entry);
+                if (alias == null || alias.equals(canonical)) {
+                    continue;
+                }
+                String previous = canonicalByAlias.putIfAbsent(alias, canonical);
+                if (previous != null && !previous.equals(canonical)) {
+                    throw new IllegalArgumentException("Line " + number + ": '" + alias
+                            + "' is already an alias of '" + previous + "'");
+                }
+            }
+        }
+        for (String canonical : canonicalByAlias.values()) {
+            if (canonicalByAlias.containsKey(canonical)) {
+                throw new IllegalArgumentException("'" + canonical + "' is both a canonical name and an alias");
+            }
+        }
+        return new SkillSynonyms(canonicalByAlias);
+    }
+
+    // Canonical name for an already trimmed and lowercased skill; skills without an entry are returned as they are
+    public String canonical(String normalizedSkill) {
+        return canonicalByAlias.getOrDefault(normalizedSkill, normalizedSkill);
+    }
+
+    // Number of aliases in the table
+    public int size() {
+        return canonicalByAlias.size();
+    }
+
+    // Trims and lowercases a table entry like SkillDictionary does; blank entries become null
+    private static String clean(String entry) {
+        String value = entry.trim().toLowerCase();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Loads the table on first use
+    private static final class Holder {
+        static final SkillSynonyms GLOBAL = load();
+
+        private static SkillSynonyms load() {
+            String path = System.getProperty("smartcv.skillSynonyms");
+            try {
+                if (path != null) {
+                    try (Reader reader = Files.newBufferedReader(Path.of(path), StandardCharsets.UTF_8)) {
+                        return parse(reader);
+                    }
+                }
+                InputStream table = SkillSynonyms.class.getResourceAsStream(DEFAULT_TABLE);
+                if (table == null) {
+                    return NONE; // Running without resources, e.g. from bare class files
+                }
+                try (Reader reader = new InputStreamReader(table, StandardCharsets.UTF_8)) {
+                    return parse(reader);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read the skill synonym table", e);
+            }
+        }
+    }
+}
@@ -6,27 +6,53 @@ package com.sample.smartcv;
  * Smart CV Analyzer application.
  */
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
-import java.util.stream.Collectors; // <-- Add this to handle stream operations
 import static java.lang.System.*;
 
 public class SmartCVAnalyzer {
     // Logger for tracking application events
     private static final Logger logger = Logger.getLogger(SmartCVAnalyzer.class.getName());
 
+    // Port used by "--server" when none is given
+    private static final int DEFAULT_SERVER_PORT = 8080;
+
     // Scanner to read user input
     private static final Scanner scanner = new Scanner(in);
 
-    // Pre-loaded candidate profiles to search through
-    private static final List<CV> CANDIDATE_LIBRARY = createCandidateLibrary();
+    // Candidate profiles to search through, which can be added and removed while searches run; every search
+    // reads the repository's latest snapshot. With a snapshot file, CVs are decoded on first access.
+    private static final CandidateRepository REPOSITORY = openRepository();
+
+    // Skill searches only look at candidates found through the inverted skill index; repeated searches hit the cache.
+    // Searches with hard filters are planned first, so only candidates passing them are scored.
+    private static final CachingMatchingService SKILL_MATCHER = new CachingMatchingService(
+            new InstrumentedMatchingService(new QueryPlanner(new IndexedMatchingService())),
+            CachingMatchingService.DEFAULT_MAX_ENTRIES, CachingMatchingService.DEFAULT_TIME_TO_LIVE, REPOSITORY::version);
+
+    // Experience and education searches drop candidates failing the constraint, then score the rest from primitive columns
+    private static final CachingMatchingService FULL_SCAN_MATCHER = new CachingMatchingService(
+            new InstrumentedMatchingService(new QueryPlanner(new ColumnarMatchingService())),
+            CachingMatchingService.DEFAULT_MAX_ENTRIES, CachingMatchingService.DEFAULT_TIME_TO_LIVE, REPOSITORY::version);
 
     public static void main(String[] args) {
         logger.info("Starting Smart CV Analyzer");
 
+        // "--server [port]" answers searches over HTTP instead of showing the interactive menu
+        if (args.length > 0 && args[0].equals("--server")) {
+            runServer(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SERVER_PORT);
+            return;
+        }
+
         // Display initial information about the candidate library
         out.println("\n=== Smart CV Analyzer ===");
-        out.println("Candidate Library: " + CANDIDATE_LIBRARY.size() + " profiles loaded");
+        out.println("Candidate Library: " + REPOSITORY.size() + " profiles loaded");
 
         // Loop to continuously display menu options and accept user input
         while (true) {
@@ -35,7 +61,10 @@ public class SmartCVAnalyzer {
             out.println("2. Search by Minimum Experience");
             out.println("3. Search by Education Level");
             out.println("4. View All Candidates");
-            out.println("5. Exit");
+            out.println("5. Show Metrics");
+            out.println("6. Add Candidate from Resume File");
+            out.println("7. Remove Candidate");
+            out.println("8. Exit");
             out.print("Select option: ");
 
             // Read user selection
@@ -48,8 +77,12 @@ public class SmartCVAnalyzer {
                 case 2 -> searchByExperience();   // Search candidates by minimum experience
                 case 3 -> searchByEducation();    // Search candidates by education level
                 case 4 -> displayAllCandidates(); // Display all candidates
-                case 5 -> {
+                case 5 -> displayMetrics();       // Dump stage timings and counters
+                case 6 -> addCandidate();         // Parse a resume and add or replace its candidate
+                case 7 -> removeCandidate();      // Remove a candidate by email
+                case 8 -> {
                     // Exit the application
+                    logger.info("Result cache: skills " + SKILL_MATCHER.stats() + ", full scan " + FULL_SCAN_MATCHER.stats());
                     logger.info("Exiting application");
                     return;
                 }
@@ -58,6 +91,29 @@ public class SmartCVAnalyzer {
         }
     }
 
+    // Serve skill, experience and education searches over HTTP until the JVM is stopped
+    private static void runServer(int port) {
+        int maxConcurrent = Integer.getInteger("smartcv.server.maxConcurrent", QueryServer.DEFAULT_MAX_CONCURRENT_REQUESTS);
+        Duration timeout = Duration.ofMillis(Long.getLong("smartcv.server.timeoutMillis",
+                QueryServer.DEFAULT_REQUEST_TIMEOUT.toMillis()));
+        try {
+            // Every request searches the repository's latest snapshot; the indexed matcher also handles searches
+            // without skills
+            QueryServer server = new QueryServer(port, REPOSITORY::snapshot, SKILL_MATCHER, maxConcurrent, timeout);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                logger.info("Result cache: " + SKILL_MATCHER.stats());
+            }));
+            server.start();
+            out.println("Serving " + REPOSITORY.size() + " profiles on http://localhost:" + server.port());
+            Thread.currentThread().join(); // The server threads do the work; stop with Ctrl+C
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start query server on port " + port, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     // Search candidates based on required skills
     private static void searchBySkills() {
         out.print("\nEnter required skills (comma separated): ");
@@ -74,7 +130,7 @@ public class SmartCVAnalyzer {
                 new JobDescription.ExperienceRange(0, null), List.of());
 
         // Analyze the job description against candidates and display results
-        analyzeAndDisplay(job);
+        analyzeAndDisplay(job, SKILL_MATCHER);
     }
 
     // Search candidates based on minimum years of experience
@@ -83,12 +139,12 @@ public class SmartCVAnalyzer {
         int years = scanner.nextInt();
         scanner.nextLine(); // Consume the newline character
 
-        // Create a job description with the minimum experience required (no skills or education filter)
+        // Create a job description with the minimum experience required; candidates below it are left out
         JobDescription job = new JobDescription("Experience Search", Set.of(),
-                new JobDescription.ExperienceRange(years, null), List.of());
+                new JobDescription.ExperienceRange(years, null), List.of(), HardFilters.minYears(Math.max(0, years)));
 
         // Analyze and display results
-        analyzeAndDisplay(job);
+        analyzeAndDisplay(job, FULL_SCAN_MATCHER);
     }
 
     // Search candidates based on required education level (e.g., Bachelor's, Master's)
@@ -96,75 +152,181 @@ public class SmartCVAnalyzer {
         out.print("\nEnter required degree level (e.g. Bachelor's, Master's): ");
         String degree = scanner.nextLine();
 
-        // Create a job description with the required degree level (no skills or experience filter)
+        // Create a job description with the required degree level; candidates without that degree are left out
         JobDescription job = new JobDescription("Education Search", Set.of(),
                 new JobDescription.ExperienceRange(0, null),
-                List.of(new JobDescription.DegreeRequirement(degree, "")));
+                List.of(new JobDescription.DegreeRequirement(degree, "")),
+                HardFilters.minDegree(DegreeLevel.of(degree)));
 
         // Analyze and display results
-        analyzeAndDisplay(job);
+        analyzeAndDisplay(job, FULL_SCAN_MATCHER);
     }
 
     // Display a list of all candidates in the system
     private static void displayAllCandidates() {
         out.println("\n=== All Candidates ===");
-        CANDIDATE_LIBRARY.forEach(candidate -> {
+        REPOSITORY.snapshot().forEach(candidate -> {
             out.println("\nName: " + candidate.getName());
             out.println("Email: " + candidate.getEmail());
-            out.println("Skills: " + String.join(", ", candidate.getSkills()));
+            out.println("Skills: " + String.join(", ", candidate.getSkillsView()));
             out.println("Experience: " + candidate.getYearsExperience() + " years");
-            out.println("Education: " + candidate.getEducation());
+            out.println("Education: " + candidate.getEducationView());
         });
     }
 
+    // Parse a resume file and add its candidate, replacing the one with the same email; later searches see it
+    private static void addCandidate() {
+        out.print("\nEnter path of the resume file: ");
+        Path file = Path.of(scanner.nextLine().trim());
+        try {
+            CV candidate = new StreamingResumeParser().parse(Files.readString(file));
+            String rejection = IngestionPipeline.Validator.DEFAULT.validate(candidate);
+            if (rejection != null) {
+                out.println("Could not add " + file + ": " + rejection);
+                return;
+            }
+            if (REPOSITORY.update(candidate)) {
+                out.println("Replaced " + candidate.getName() + " <" + candidate.getEmail() + ">");
+            } else {
+                REPOSITORY.add(candidate);
+                out.println("Added " + candidate.getName() + " <" + candidate.getEmail() + ">");
+            }
+            logger.info("Library changed: " + REPOSITORY.size() + " profiles");
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Could not add candidate from " + file + ": " + e.getMessage());
+            out.println("Could not add candidate from " + file);
+        }
+    }
+
+    // Remove the candidate with the given email; later searches no longer list it
+    private static void removeCandidate() {
+        out.print("\nEnter email of the candidate to remove: ");
+        String email = scanner.nextLine();
+        if (REPOSITORY.remove(email)) {
+            out.println("Removed " + email.trim());
+            logger.info("Library changed: " + REPOSITORY.size() + " profiles");
+        } else {
+            out.println("No candidate with email " + email.trim());
+        }
+    }
+
+    // Display the collected stage timings and counters, followed by the same data in Prometheus format
+    private static void displayMetrics() {
+        out.println("\n=== Metrics ===");
+        out.print(Metrics.summary());
+        if (Metrics.ENABLED) {
+            out.println("\n--- Prometheus ---");
+            out.print(Metrics.prometheus());
+        }
+    }
+
     // Analyze candidates based on a job description and display ranking results
-    private static void analyzeAndDisplay(JobDescription job) {
-        MatchingService matcher = new WeightedMatchingService();
-        List<CandidateMatch> results = matcher.analyzeAndRank(CANDIDATE_LIBRARY, job);
-
-        // Display the ranking of candidates
-        out.println("\n=== Ranking Results ===");
-        out.printf("%-20s %-10s %s\n", "Name", "Score", "Match Details");
-        out.println("----------------------------------------");
-
-        // Display details for each candidate in the ranking
-        for (CandidateMatch match : results) {
-            CV candidate = match.getCandidate();
-            out.printf("%-20s %-10.1f%%\n", candidate.getName(), match.getScore() * 100);
-            out.println("   Skills: " + String.join(", ", candidate.getSkills()));
-            out.println("   Experience: " + candidate.getYearsExperience() + " years");
-            out.println("   Education: " + candidate.getEducation().stream()
-                    .map(e -> e.degree())
-                    .collect(Collectors.joining(", ")));
-            out.println("----------------------------------------");
+    private static void analyzeAndDisplay(JobDescription job, MatchingService matcher) {
+        List<CandidateMatch> results = matcher.analyzeAndRank(REPOSITORY.snapshot(), job);
+        long renderStarted = Metrics.start();
+
+        // Display the ranking of candidates through one buffered sink instead of several printlns per candidate
+        try (ResultSink sink = AnalysisResultPrinter.toStandardOutput(TextResultSink.Layout.RANKING)) {
+            sink.writeAll(job, results);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not display the ranking", e);
         }
+        Metrics.record(Metrics.Stage.RENDER, renderStarted);
+        Metrics.resultsReturned(results.size());
+
+        // With -Dsmartcv.export=<file>, the full ranking is also written for other tools (.csv, .jsonl, or a report)
+        String exportPath = getProperty("smartcv.export");
+        if (exportPath != null) {
+            exportResults(job, results, Path.of(exportPath));
+        }
+    }
+
+    // Write a ranking to a file in the format its extension names, replacing the file
+    private static void exportResults(JobDescription job, List<CandidateMatch> results, Path file) {
+        try (ResultSink sink = ResultSink.open(file)) {
+            sink.writeAll(job, results);
+            out.println("Exported " + results.size() + " matches to " + file);
+        } catch (IOException e) {
+            logger.warning("Could not export results to " + file + ": " + e.getMessage());
+            out.println("Could not export results to " + file);
+        }
+    }
+
+    // Open the repository over the snapshot named by -Dsmartcv.snapshot=<file>; if the file does not exist yet, build
+    // the library and write it. Without the property the library is loaded in memory.
+    private static CandidateRepository openRepository() {
+        String snapshotPath = getProperty("smartcv.snapshot");
+        if (snapshotPath == null) {
+            return loadCandidateLibrary();
+        }
+
+        Path file = Path.of(snapshotPath);
+        try {
+            if (!Files.exists(file)) {
+                CandidateSnapshot.write(loadCandidateLibrary().snapshot(), file);
+                logger.info("Wrote candidate snapshot " + file);
+            }
+            long started = nanoTime();
+            CandidateSnapshot snapshot = CandidateSnapshot.open(file);
+            long mapped = nanoTime();
+            CandidateRepository repository = new CandidateRepository(snapshot);
+            // The time until the library can be searched, not just until the file is mapped
+            logger.info("Opened snapshot " + file + " with " + snapshot.size() + " candidates in "
+                    + (nanoTime() - started) / 1_000_000 + " ms (mapped in " + (mapped - started) / 1_000_000 + " ms)");
+            return repository;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open candidate snapshot " + file, e);
+        }
+    }
+
+    // Load the candidate library from -Dsmartcv.generate=<count>, -Dsmartcv.import=<directory or corpus file>,
+    // or fall back to the sample library
+    private static CandidateRepository loadCandidateLibrary() {
+        // -Dsmartcv.generate=<count> builds a reproducible synthetic library of that size (seeded by -Dsmartcv.seed)
+        String generate = getProperty("smartcv.generate");
+        if (generate != null) {
+            CorpusGenerator generator = new CorpusGenerator(Long.getLong("smartcv.seed", CorpusGenerator.DEFAULT_SEED));
+            return new CandidateRepository(generator.candidates(Integer.parseInt(generate.trim())));
+        }
+
+        String importPath = getProperty("smartcv.import");
+        if (importPath == null) {
+            return new CandidateRepository(createCandidateLibrary());
+        }
+
+        Path source = Path.of(importPath);
+        CandidateRepository candidates = new CandidateRepository(); // Rejects, and so skips, a repeated email
+        IngestionPipeline pipeline = new IngestionPipeline(new StreamingResumeParser());
+        // Re-applications and resubmissions are dropped in favour of the copy read first (files sorted by path,
+        // corpus records in file order), so results list each person once and repeated imports keep the same copy
+        Deduplicator deduplicator = new Deduplicator();
+        Consumer<IngestionError> skipped = error -> logger.fine("Skipped " + error);
+        Consumer<Deduplicator.Decision> merged = decision -> logger.fine("Merged " + decision);
+        try {
+            IngestionReport report = Files.isDirectory(source)
+                    ? pipeline.ingestDirectory(source, candidates::add, skipped, deduplicator, merged)
+                    : pipeline.ingestCorpus(source, candidates::add, skipped, deduplicator, merged);
+            logger.info("Imported " + source + ": " + report);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not import candidates from " + source, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Candidate import was interrupted", e);
+        }
+        return candidates;
     }
 
     // Create a sample candidate library with random profiles
     private static List<CV> createCandidateLibrary() {
         List<CV> candidates = new ArrayList<>();
-        ResumeParser parser = new SimpleResumeParser();
-        Random random = new Random();
-
-        // Example first and last names
-        String[] firstNames = {"John", "Emma", "Michael", "Sophia", "William",
-                "Olivia", "James", "Ava", "Robert", "Mia"};
-        String[] lastNames = {"Smith", "Johnson", "Williams", "Brown", "Jones",
-                "Miller", "Davis", "Garcia", "Rodriguez", "Wilson"};
-
-        // Example skill sets for candidates
-        String[][] skillsSets = {
-                {"Java", "Spring", "SQL"},
-                {"Python", "Data Analysis", "Machine Learning"},
-                {"JavaScript", "React", "Node.js"},
-                {"C#", ".NET", "Azure"},
-                {"HTML", "CSS", "JavaScript", "React"},
-                {"Python", "Django", "PostgreSQL"},
-                {"Java", "Hibernate", "Microservices"},
-                {"Swift", "iOS Development", "Xcode"},
-                {"Kotlin", "Android Development", "Firebase"},
-                {"Go", "Docker", "Kubernetes"}
-        };
+        ResumeParser parser = new StreamingResumeParser();
+        Long seed = Long.getLong("smartcv.seed"); // Set it to get the same sample library on every start
+        Random random = seed != null ? new Random(seed) : new Random();
+
+        // Example first and last names, skill sets and universities, shared with the synthetic corpus generator
+        String[] firstNames = CorpusGenerator.FIRST_NAMES;
+        String[] lastNames = CorpusGenerator.LAST_NAMES;
+        String[][] skillsSets = CorpusGenerator.SKILL_SETS;
 
         // Randomly generate candidate profiles
         for (int i = 0; i < 10; i++) {
@@ -175,7 +337,7 @@ public class SmartCVAnalyzer {
             int experience = random.nextInt(10) + 1;
             String degree = random.nextBoolean() ? "Bachelor's" : "Master's";
             String university = "University of " +
-                    new String[]{"Tech", "State", "City", "National"}[random.nextInt(4)];
+                    CorpusGenerator.UNIVERSITIES[random.nextInt(CorpusGenerator.UNIVERSITIES.length)];
             int gradYear = 2023 - experience - random.nextInt(5);
 
             // Build a candidate's resume text and parse it
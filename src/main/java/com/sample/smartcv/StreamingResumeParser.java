@@ -0,0 +1,268 @@
+package com.sample.smartcv;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class StreamingResumeParser implements ResumeParser {
+
+    @Override
+    public CV parse(String rawText) {
+        return parse((CharSequence) rawText);
+    }
+
+    @Override
+    public CV parse(CharSequence text) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        long started = Metrics.start();
+        return ParseEvent.finish(event, started, this, text, parseLines(text));
+    }
+
+    // Reads the text once, line by line, and extracts every field on the way.
+    // Only the extracted values are copied out of the sequence, so a CharBuffer over a mapped file is never copied whole.
+    private CV parseLines(CharSequence text) {
+        String name = null;
+        String email = null;
+        Set<String> skills = new HashSet<>();
+        int yearsExperience = -1;
+        List<CV.Education> education = new ArrayList<>();
+
+        int length = text.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            // Find the end of the current line and trim whitespace on both sides
+            int lineEnd = lineStart;
+            while (lineEnd < length && text.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int start = skipWhitespace(text, lineStart, lineEnd);
+            int end = trimEnd(text, start, lineEnd);
+
+            if (start < end) {
+                int value;
+                if ((value = afterLabel(text, start, end, "Name:")) >= 0) {
+                    if (name == null) name = text.subSequence(value, end).toString();
+                } else if ((value = afterLabel(text, start, end, "Email:")) >= 0
+                        || (value = afterLabel(text, start, end, "E-mail:")) >= 0) {
+                    if (email == null) email = findEmail(text, value, end);
+                } else if ((value = afterLabel(text, start, end, "Skills:")) >= 0
+                        || (value = afterLabel(text, start, end, "Skill:")) >= 0) {
+                    splitSkills(text, value, end, skills);
+                } else if ((value = afterLabel(text, start, end, "Experience:")) >= 0) {
+                    if (yearsExperience < 0) yearsExperience = firstNumber(text, value, end);
+                } else if ((value = afterLabel(text, start, end, "Education:")) >= 0) {
+                    splitEducation(text, value, end, education);
+                } else {
+                    // Unlabeled line: fall back to recognizing the values by their shape
+                    if (name == null && looksLikeName(text, start, end)) name = text.subSequence(start, end).toString();
+                    if (email == null) email = findEmail(text, start, end);
+                    if (yearsExperience < 0) yearsExperience = yearsMention(text, start, end);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+
+        return new CV(name != null ? name : "Unknown", // Default to "Unknown" if no name is found
+                email != null ? email : "", // Default to empty if no email is found
+                skills,
+                Math.max(yearsExperience, 0),
+                education);
+    }
+
+    // Returns the index right after "label" (case-insensitive) and any following spaces, or -1 if the line has another label
+    private static int afterLabel(CharSequence text, int start, int end, String label) {
+        if (end - start < label.length()) {
+            return -1;
+        }
+        for (int i = 0; i < label.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != Character.toLowerCase(label.charAt(i))) {
+                return -1;
+            }
+        }
+        return skipWhitespace(text, start + label.length(), end);
+    }
+
+    // Splits a comma separated skills list
+    private static void splitSkills(CharSequence text, int start, int end, Set<String> skills) {
+        int itemStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || text.charAt(i) == ',') {
+                int from = skipWhitespace(text, itemStart, i);
+                int to = trimEnd(text, from, i);
+                if (from < to) {
+                    skills.add(text.subSequence(from, to).toString());
+                }
+                itemStart = i + 1;
+            }
+        }
+    }
+
+    // Splits a semicolon separated list of entries shaped like "Master's in Computer Science, University of Tech (2015)"
+    private static void splitEducation(CharSequence text, int start, int end, List<CV.Education> education) {
+        int entryStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || text.charAt(i) == ';') {
+                int from = skipWhitespace(text, entryStart, i);
+                int to = trimEnd(text, from, i);
+                if (from < to) {
+                    education.add(parseEducation(text, from, to));
+                }
+                entryStart = i + 1;
+            }
+        }
+    }
+
+    // Parses a single education entry; any part that is missing is left empty
+    private static CV.Education parseEducation(CharSequence text, int start, int end) {
+        // The graduation year is the number in parentheses at the end, if there is one
+        int year = 0;
+        int institutionEnd = end;
+        if (text.charAt(end - 1) == ')') {
+            int open = lastIndexOf(text, '(', start, end);
+            if (open >= 0) {
+                year = Math.max(firstNumber(text, open, end), 0);
+                institutionEnd = trimEnd(text, start, open);
+            }
+        }
+
+        // "<degree> in <field>" comes before the first comma, the institution after it
+        int comma = indexOf(text, ',', start, institutionEnd);
+        int qualificationEnd = comma >= 0 ? comma : institutionEnd;
+        String institution = comma >= 0
+                ? text.subSequence(skipWhitespace(text, comma + 1, institutionEnd), institutionEnd).toString()
+                : "";
+
+        int in = indexOf(text, " in ", start, qualificationEnd);
+        String degree = text.subSequence(start, trimEnd(text, start, in >= 0 ? in : qualificationEnd)).toString();
+        String field = in >= 0
+                ? text.subSequence(skipWhitespace(text, in + 4, qualificationEnd), trimEnd(text, in + 4, qualificationEnd)).toString()
+                : "";
+        return new CV.Education(institution, degree, field, year);
+    }
+
+    // Finds the first whitespace-delimited token containing '@' and returns it without surrounding punctuation
+    private static String findEmail(CharSequence text, int start, int end) {
+        int at = indexOf(text, '@', start, end);
+        if (at < 0) {
+            return null;
+        }
+        int from = at;
+        while (from > start && isEmailChar(text.charAt(from - 1))) {
+            from--;
+        }
+        int to = at + 1;
+        while (to < end && isEmailChar(text.charAt(to))) {
+            to++;
+        }
+        while (to > at + 1 && text.charAt(to - 1) == '.') {
+            to--; // A sentence-ending period is not part of the address
+        }
+        return text.subSequence(from, to).toString();
+    }
+
+    // Characters allowed around the '@' of an email address
+    private static boolean isEmailChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '.' || c == '-' || c == '_' || c == '+';
+    }
+
+    // Whether the line consists of at least two words made only of letters
+    private static boolean looksLikeName(CharSequence text, int start, int end) {
+        int words = 0;
+        boolean inWord = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetter(c)) {
+                if (!inWord) words++;
+                inWord = true;
+            } else if (c == ' ') {
+                inWord = false;
+            } else {
+                return false;
+            }
+        }
+        return words >= 2;
+    }
+
+    // Returns the number preceding "year"/"years" in the range, or -1 if there is none
+    private static int yearsMention(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end) {
+            if (!Character.isDigit(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int numberStart = i;
+            while (i < end && Character.isDigit(text.charAt(i))) {
+                i++;
+            }
+            int numberEnd = i;
+            if (afterLabel(text, skipWhitespace(text, numberEnd, end), end, "year") >= 0) {
+                return parseInt(text, numberStart, numberEnd);
+            }
+        }
+        return -1;
+    }
+
+    // Returns the first number in the range, or -1 if there is none
+    private static int firstNumber(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end && !Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        int numberStart = i;
+        while (i < end && Character.isDigit(text.charAt(i))) {
+            i++;
+        }
+        return numberStart < i ? parseInt(text, numberStart, i) : -1;
+    }
+
+    // Parses the digits in the range, saturating instead of overflowing on absurdly long numbers
+    private static int parseInt(CharSequence text, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end && value <= Integer.MAX_VALUE; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+
+    private static int skipWhitespace(CharSequence text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(CharSequence text, int start, int end) {
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static int indexOf(CharSequence text, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static int indexOf(CharSequence text, String s, int start, int end) {
+        outer:
+        for (int i = start; i <= end - s.length(); i++) {
+            for (int j = 0; j < s.length(); j++) {
+                if (text.charAt(i + j) != s.charAt(j)) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(CharSequence text, char c, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            if (text.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,107 @@
+package com.sample.smartcv;
+
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.List;
+import java.util.Locale;
+
+// Human-readable rankings, laid out exactly as the CLI printed them with printf. Scores are rounded like "%.1f"
+// (half up on the shortest decimal form of the double, with the default locale's decimal separator) without
+// going through a Formatter for every row.
+public final class TextResultSink extends BufferedResultSink {
+    // The two layouts the CLI shows
+    public enum Layout {
+        DETAILED_REPORT, // Email, experience, matched and missing skills per candidate
+        RANKING // Skills, experience and education per candidate, in a name/score table
+    }
+
+    private static final String REPORT_RULE = "------------------------------------------------";
+    private static final String RANKING_RULE = "----------------------------------------";
+
+    private final Layout layout; // Which of the two layouts is written
+    private final char decimalSeparator; // Matches what printf would print in the default locale
+
+    // Creates a sink in the given layout; with closeTarget false, the target is only flushed on close
+    public TextResultSink(Writer target, Layout layout, boolean closeTarget) {
+        super(target, closeTarget);
+        this.layout = layout;
+        this.decimalSeparator = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT))
+                .getDecimalSeparator();
+    }
+
+    @Override
+    protected void header(StringBuilder out, JobDescription job) {
+        if (layout == Layout.DETAILED_REPORT) {
+            out.append("\n=== Detailed Analysis Report ===\n");
+            out.append("Job Title: ").append(job.getTitle()).append('\n');
+            out.append("Required Skills: ");
+            for (int i = 0; i < requiredSkillCount(); i++) {
+                out.append(i == 0 ? "" : ", ").append(requiredSkill(i));
+            }
+            out.append('\n');
+            out.append("Required Experience: ").append(job.getRequiredExperience().minYears()).append("+ years\n");
+            out.append(REPORT_RULE).append('\n');
+        } else {
+            out.append("\n=== Ranking Results ===\n");
+            pad(out.append("Name"), 4, 20).append(' ');
+            pad(out.append("Score"), 5, 10).append(' ').append("Match Details\n");
+            out.append(RANKING_RULE).append('\n');
+        }
+    }
+
+    @Override
+    protected void row(StringBuilder out, int rank, CandidateMatch match) {
+        CV candidate = match.getCandidate();
+        if (layout == Layout.DETAILED_REPORT) {
+            out.append(rank).append(". ").append(candidate.getName()).append(" (Score: ");
+            appendPercent(out, match.getScore());
+            out.append("%)\n");
+            out.append("   Email: ").append(candidate.getEmail()).append('\n');
+            out.append("   Experience: ").append(candidate.getYearsExperience()).append(" years\n");
+            out.append("   Matched Skills: [");
+            appendRequiredSkills(out, true, ", ");
+            out.append("]\n");
+            if (missingSkillCount() > 0) {
+                out.append("   Missing Skills: [");
+                appendRequiredSkills(out, false, ", ");
+                out.append("]\n");
+            }
+        } else {
+            String name = candidate.getName();
+            pad(out.append(name), name.length(), 20).append(' ');
+            int scoreStart = out.length();
+            appendPercent(out, match.getScore());
+            pad(out, out.length() - scoreStart, 10).append("%\n");
+            out.append("   Skills: ");
+            int[] skillIds = candidate.skillIds();
+            for (int i = 0; i < skillIds.length; i++) {
+                out.append(i == 0 ? "" : ", ").append(SkillDictionary.global().skill(skillIds[i]));
+            }
+            out.append('\n');
+            out.append("   Experience: ").append(candidate.getYearsExperience()).append(" years\n");
+            out.append("   Education: ");
+            List<CV.Education> education = candidate.getEducationView();
+            for (int i = 0; i < education.size(); i++) {
+                out.append(i == 0 ? "" : ", ").append(education.get(i).degree());
+            }
+            out.append('\n');
+            out.append(RANKING_RULE).append('\n');
+        }
+    }
+
+    // Appends score * 100 with one decimal, as "%.1f" would
+    private void appendPercent(StringBuilder out, double score) {
+        String digits = BigDecimal.valueOf(score * 100).setScale(1, RoundingMode.HALF_UP).toPlainString();
+        out.append(digits, 0, digits.length() - 2).append(decimalSeparator).append(digits.charAt(digits.length() - 1));
+    }
+
+    // Pads the last `written` characters with spaces to `width`, like a left-justified "%-<width>s"
+    private static StringBuilder pad(StringBuilder out, int written, int width) {
+        for (int i = written; i < width; i++) {
+            out.append(' ');
+        }
+        return out;
+    }
+}
@@ -0,0 +1,115 @@
+package com.sample.smartcv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class TopKCollector {
+    private final int capacity; // Maximum number of entries kept (the K in top-K)
+    private final double[] scores; // Heap of scores, the worst kept entry sits at index 0
+    private final int[] ordinals; // Candidate ordinals, kept in step with the scores heap
+    private int size; // Number of entries currently in the heap
+
+    // Creates a collector that keeps the best k (score, ordinal) pairs offered to it
+    public TopKCollector(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
+        }
+        this.capacity = k;
+        this.scores = new double[k];
+        this.ordinals = new int[k];
+    }
+
+    // Ranking order used everywhere: higher score first, and on equal scores the lower ordinal first.
+    // This is exactly the order produced by a stable descending sort over the candidate list.
+    static boolean ranksAbove(double score, int ordinal, double otherScore, int otherOrdinal) {
+        int cmp = Double.compare(score, otherScore);
+        return cmp > 0 || (cmp == 0 && ordinal < otherOrdinal);
+    }
+
+    // Offers a scored candidate; it is kept only if it beats the current worst entry
+    public void offer(double score, int ordinal) {
+        if (size < capacity) {
+            scores[size] = score;
+            ordinals[size] = ordinal;
+            siftUp(size++);
+        } else if (capacity > 0 && ranksAbove(score, ordinal, scores[0], ordinals[0])) {
+            scores[0] = score;
+            ordinals[0] = ordinal;
+            siftDown(0);
+        }
+    }
+
+    // Offers every entry of another collector, e.g. a partial result computed elsewhere
+    public void addAll(TopKCollector other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.scores[i], other.ordinals[i]);
+        }
+    }
+
+    // Number of entries currently kept
+    public int size() {
+        return size;
+    }
+
+    // Drains the heap into CandidateMatch objects, best match first. The collector is empty afterwards.
+    public List<CandidateMatch> toMatches(List<CV> candidates) {
+        CandidateMatch[] ranked = new CandidateMatch[size];
+        // Popping the min-heap yields the worst entry first, so fill the result from the back
+        for (int i = size - 1; i >= 0; i--) {
+            ranked[i] = new CandidateMatch(candidates.get(ordinals[0]), scores[0]);
+            removeRoot();
+        }
+        return new ArrayList<>(Arrays.asList(ranked));
+    }
+
+    // Removes the worst entry from the heap
+    private void removeRoot() {
+        size--;
+        scores[0] = scores[size];
+        ordinals[0] = ordinals[size];
+        siftDown(0);
+    }
+
+    // Moves an entry towards the root while it ranks below its parent
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(scores[parent], ordinals[parent], scores[index], ordinals[index])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    // Moves an entry towards the leaves while one of its children ranks below it
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && ranksAbove(scores[left], ordinals[left], scores[right], ordinals[right])) {
+                worst = right;
+            }
+            if (!ranksAbove(scores[index], ordinals[index], scores[worst], ordinals[worst])) {
+                return;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    // Swaps two heap slots
+    private void swap(int i, int j) {
+        double score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+        int ordinal = ordinals[i];
+        ordinals[i] = ordinals[j];
+        ordinals[j] = ordinal;
+    }
+}
@@ -0,0 +1,105 @@
+package com.sample.smartcv;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+// Scores one vector of rows per iteration with the incubating Vector API. The arithmetic is the same
+// sequence of IEEE operations as the scalar formula, so the scores are identical, not just close.
+// Only instantiated through ScoringKernel.preferred() when jdk.incubator.vector is in the boot layer.
+final class VectorScoringKernel implements ScoringKernel {
+    // Widest double vector the CPU supports, and long/int species with the same number of lanes
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = VectorSpecies.of(long.class, DOUBLES.vectorShape());
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+    // Smallest byte species; it has at least as many lanes as DOUBLES, of which the first DOUBLES.length() are used
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_64;
+
+    @Override
+    public void score(CandidateTable table, ScoringPlan plan, double[] scores) {
+        int[] years = table.years();
+        long[][] skillWords = table.skillWords();
+        long[] jobBits = plan.skillBits();
+        int wordCount = Math.min(skillWords.length, jobBits.length);
+        int[][] fuzzyIds = plan.fuzzySkillIds();
+        double[][] fuzzyWeights = plan.fuzzySkillWeights();
+        boolean skillsRequired = plan.requiredSkillCount() > 0;
+        double requiredSkills = plan.requiredSkillCount();
+        double minYears = plan.minYears();
+        double maxYears = plan.maxYears();
+        // Without a requirement above NONE every candidate gets the same education score, so it is a constant
+        byte[] degreeLevels = table.degreeLevels();
+        boolean educationVaries = plan.requiredDegree() > 0;
+        double requiredDegree = plan.requiredDegree();
+        double educationTerm = plan.educationScore(0) * WeightedMatchingService.EDUCATION_WEIGHT;
+
+        int upperBound = DOUBLES.loopBound(table.size());
+        if (educationVaries) {
+            // A degree load reads BYTES.length() entries, which must all lie inside the column
+            upperBound = Math.min(upperBound, table.size() - BYTES.length() + 1);
+        }
+        int i = 0;
+        for (; i < upperBound; i += DOUBLES.length()) {
+            // Skills: popcount of candidate words masked with the job's words, summed over the words
+            LongVector matched = LongVector.zero(LONGS);
+            for (int w = 0; w < wordCount; w++) {
+                if (jobBits[w] != 0) { // Words without required skills cannot contribute
+                    matched = matched.add(LongVector.fromArray(LONGS, skillWords[w], i)
+                            .and(jobBits[w])
+                            .lanewise(VectorOperators.BIT_COUNT));
+                }
+            }
+            DoubleVector matchedSkills = (DoubleVector) matched.convert(VectorOperators.L2D, 0);
+            // Fuzzy required skills: per group, the highest weight among the spellings each row has
+            for (int g = 0; g < fuzzyIds.length; g++) {
+                DoubleVector best = DoubleVector.zero(DOUBLES);
+                for (int a = 0; a < fuzzyIds[g].length; a++) {
+                    int id = fuzzyIds[g][a];
+                    if ((id >>> 6) < skillWords.length) { // Ids beyond the table's words belong to nobody here
+                        VectorMask<Double> has = LongVector.fromArray(LONGS, skillWords[id >>> 6], i)
+                                .and(1L << id)
+                                .compare(VectorOperators.NE, 0)
+                                .cast(DOUBLES);
+                        best = best.max(DoubleVector.zero(DOUBLES).blend(fuzzyWeights[g][a], has));
+                    }
+                }
+                matchedSkills = matchedSkills.add(best);
+            }
+            DoubleVector skillScore = skillsRequired ? matchedSkills.div(requiredSkills) : DoubleVector.zero(DOUBLES);
+
+            // Experience: compute the fractional score everywhere, then blend in 0.8 and 1.0 where they apply
+            DoubleVector candidateYears = (DoubleVector) IntVector.fromArray(INTS, years, i)
+                    .convertShape(VectorOperators.I2D, DOUBLES, 0);
+            VectorMask<Double> inRange = candidateYears.compare(VectorOperators.GE, minYears)
+                    .and(candidateYears.compare(VectorOperators.LE, maxYears));
+            VectorMask<Double> overqualified = candidateYears.compare(VectorOperators.GT, minYears);
+            DoubleVector experienceScore = candidateYears.div(minYears).mul(0.5)
+                    .blend(0.8, overqualified)
+                    .blend(1.0, inRange);
+
+            // Education: partial credit below the required level, 1.0 blended in at or above it
+            DoubleVector education;
+            if (educationVaries) {
+                DoubleVector candidateDegree = (DoubleVector) ByteVector.fromArray(BYTES, degreeLevels, i)
+                        .convertShape(VectorOperators.B2D, DOUBLES, 0);
+                education = candidateDegree.div(requiredDegree).mul(0.5)
+                        .blend(1.0, candidateDegree.compare(VectorOperators.GE, requiredDegree))
+                        .mul(WeightedMatchingService.EDUCATION_WEIGHT);
+            } else {
+                education = DoubleVector.broadcast(DOUBLES, educationTerm);
+            }
+
+            skillScore.mul(WeightedMatchingService.SKILL_WEIGHT)
+                    .add(experienceScore.mul(WeightedMatchingService.EXPERIENCE_WEIGHT))
+                    .add(education)
+                    .intoArray(scores, i);
+        }
+        ScalarScoringKernel.score(table, plan, scores, i, table.size()); // Rows after the last full vector
+    }
+}
@@ -3,34 +3,137 @@ package com.sample.smartcv;
 import java.util.List;
 import java.util.Comparator;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class WeightedMatchingService implements MatchingService {
     // Weights for different matching criteria (skills, experience, education)
-    private static final double SKILL_WEIGHT = 0.6;
-    private static final double EXPERIENCE_WEIGHT = 0.3;
-    private static final double EDUCATION_WEIGHT = 0.1;
+    static final double SKILL_WEIGHT = 0.6;
+    static final double EXPERIENCE_WEIGHT = 0.3;
+    static final double EDUCATION_WEIGHT = 0.1;
+
+    // Ranking order shared by all matching services: highest score first
+    static final Comparator<CandidateMatch> RANKING_ORDER =
+            Comparator.comparingDouble(CandidateMatch::getScore).reversed();
 
     @Override
     public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job) {
         List<CandidateMatch> matches = new ArrayList<>();
+        long started = Metrics.start();
+        ScoringPlan plan = ScoringPlan.of(job);
 
-        // Calculate the match score for each candidate and store it along with the candidate's CV
+        // Calculate the match score for each candidate passing the hard filters and store it along with the candidate's CV
         for (CV candidate : candidates) {
-            double score = calculateMatchScore(candidate, job);
+            if (!plan.accepts(candidate)) {
+                continue;
+            }
+            double score = calculateMatchScore(candidate, plan);
             matches.add(new CandidateMatch(candidate, score));
         }
+        Metrics.record(Metrics.Stage.SCORE, started);
+        Metrics.candidates(candidates.size(), matches.size());
 
         // Sort the candidates by their match score in descending order
-        matches.sort(Comparator.comparingDouble(CandidateMatch::getScore).reversed());
+        started = Metrics.start();
+        matches.sort(RANKING_ORDER);
+        Metrics.record(Metrics.Stage.RANK, started);
+
+        return matches;
+    }
+
+    // Keeps only the best k scores in a bounded heap, so CandidateMatch objects are created for the survivors only
+    @Override
+    public List<CandidateMatch> analyzeAndRank(List<CV> candidates, JobDescription job, int k) {
+        long started = Metrics.start();
+        ScoringPlan plan = ScoringPlan.of(job);
+        TopKCollector topK = new TopKCollector(Math.min(k, candidates.size()));
+        int scored = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            CV candidate = candidates.get(i);
+            if (plan.accepts(candidate)) {
+                topK.offer(calculateMatchScore(candidate, plan), i);
+                scored++;
+            }
+        }
+        Metrics.record(Metrics.Stage.SCORE, started);
+        Metrics.candidates(candidates.size(), scored);
+        return rank(topK, candidates);
+    }
+
+    // Walks the candidate list once and scores each CV against every job while it is still in cache
+    @Override
+    public Map<JobDescription, List<CandidateMatch>> analyzeAndRankAll(List<CV> candidates,
+                                                                      List<JobDescription> jobs, int k) {
+        TopKCollector[] topK = new TopKCollector[jobs.size()];
+        for (int j = 0; j < topK.length; j++) {
+            topK[j] = new TopKCollector(Math.min(k, candidates.size()));
+        }
+        long started = Metrics.start();
+        ScoringPlan[] plans = ScoringPlan.of(jobs);
+        long scored = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            CV candidate = candidates.get(i);
+            for (int j = 0; j < topK.length; j++) {
+                if (plans[j].accepts(candidate)) {
+                    topK[j].offer(calculateMatchScore(candidate, plans[j]), i);
+                    scored++;
+                }
+            }
+        }
+        Metrics.record(Metrics.Stage.SCORE, started);
+        Metrics.candidates((long) candidates.size() * jobs.size(), scored);
+        return toResults(candidates, jobs, topK);
+    }
+
+    // Turns per-job collectors into the result map, keyed by job in the order the jobs were given
+    static Map<JobDescription, List<CandidateMatch>> toResults(List<CV> candidates, List<JobDescription> jobs,
+                                                               TopKCollector[] topK) {
+        long started = Metrics.start();
+        Map<JobDescription, List<CandidateMatch>> results = new LinkedHashMap<>();
+        for (int j = 0; j < topK.length; j++) {
+            results.put(jobs.get(j), topK[j].toMatches(candidates));
+        }
+        Metrics.record(Metrics.Stage.RANK, started);
+        return results;
+    }
 
+    // Drains a collector into the ranked result list, timing it as the rank stage
+    static List<CandidateMatch> rank(TopKCollector topK, List<CV> candidates) {
+        long started = Metrics.start();
+        List<CandidateMatch> matches = topK.toMatches(candidates);
+        Metrics.record(Metrics.Stage.RANK, started);
         return matches;
     }
 
-    // Calculate the overall match score for a candidate based on skills, experience, and education
-    private double calculateMatchScore(CV candidate, JobDescription job) {
-        double skillScore = calculateSkillMatch(candidate, job); // Matching skills score
-        double expScore = calculateExperienceMatch(candidate, job); // Matching experience score
-        double eduScore = calculateEducationMatch(candidate, job); // Matching education score
+    // Scores every candidate into primitive arrays; pages are only materialized when requested
+    @Override
+    public MatchCursor openCursor(List<CV> candidates, JobDescription job) {
+        long started = Metrics.start();
+        ScoringPlan plan = ScoringPlan.of(job);
+        int[] ordinals = new int[candidates.size()];
+        double[] scores = new double[candidates.size()];
+        int size = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            CV candidate = candidates.get(i);
+            if (plan.accepts(candidate)) {
+                ordinals[size] = i;
+                scores[size++] = calculateMatchScore(candidate, plan);
+            }
+        }
+        Metrics.record(Metrics.Stage.SCORE, started);
+        Metrics.candidates(candidates.size(), size);
+        return new MatchCursor(candidates, ordinals, scores, size);
+    }
+
+    // Calculate the overall match score for a candidate based on skills, experience, and education; allocates nothing
+    double calculateMatchScore(CV candidate, ScoringPlan plan) {
+        return calculateMatchScore(candidate, plan, calculateSkillMatch(candidate, plan));
+    }
+
+    // Calculate the overall match score when the skills score is already known (e.g. from an index lookup)
+    double calculateMatchScore(CV candidate, ScoringPlan plan, double skillScore) {
+        double expScore = calculateExperienceMatch(candidate, plan); // Matching experience score
+        double eduScore = calculateEducationMatch(candidate, plan); // Matching education score
 
         // Weighted sum of individual match scores
         return (skillScore * SKILL_WEIGHT) +
@@ -39,31 +142,32 @@ public class WeightedMatchingService implements MatchingService {
     }
 
     // Calculate how well the candidate's skills match the required skills for the job
-    private double calculateSkillMatch(CV candidate, JobDescription job) {
-        // Count how many required skills the candidate possesses
-        long matchedCount = job.getRequiredSkills().stream()
-                .filter(candidate::hasSkill) // Check if the candidate has the skill
-                .count();
+    private double calculateSkillMatch(CV candidate, ScoringPlan plan) {
+        // Count how many required skills the candidate possesses by testing its skill ids against the job's bitset
+        int matchedCount = candidate.countSkills(plan.skillBits());
+        // Required skills with close spellings earn the weight of the best spelling the candidate has
+        double matched = plan.hasFuzzySkills() ? plan.matchedSkills(matchedCount, candidate) : matchedCount;
         // Return the proportion of required skills that the candidate matches
-        return (double) matchedCount / job.getRequiredSkills().size();
+        return plan.skillScore(matched);
     }
 
     // Calculate how well the candidate's experience matches the required experience for the job
-    private double calculateExperienceMatch(CV candidate, JobDescription job) {
+    private double calculateExperienceMatch(CV candidate, ScoringPlan plan) {
+        int years = candidate.getYearsExperience();
         // Check if the candidate's experience matches the required experience range
-        if (job.getRequiredExperience().matches(candidate.getYearsExperience())) {
+        if (years >= plan.minYears() && years <= plan.maxYears()) {
             return 1.0; // Exact match
-        } else if (candidate.getYearsExperience() > job.getRequiredExperience().minYears()) {
+        } else if (years > plan.minYears()) {
             return 0.8; // Overqualified
         } else {
             // Calculate a fractional match based on how much the candidate's experience exceeds the minimum requirement
-            return 0.5 * ((double) candidate.getYearsExperience() / job.getRequiredExperience().minYears());
+            return 0.5 * ((double) years / plan.minYears());
         }
     }
 
     // Calculate how well the candidate's education matches the required education for the job
-    private double calculateEducationMatch(CV candidate, JobDescription job) {
-        // In this simplified version, we return a score of 1 if there are education requirements, otherwise 0
-        return !job.getRequiredEducation().isEmpty() ? 1.0 : 0.0;
+    private double calculateEducationMatch(CV candidate, ScoringPlan plan) {
+        // Compare the candidate's highest degree, classified once when the CV was built, with the required level
+        return plan.educationScore(candidate.getHighestDegree().ordinal());
     }
 }
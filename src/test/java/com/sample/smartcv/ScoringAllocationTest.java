@@ -0,0 +1,138 @@
+package com.sample.smartcv;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Counts the bytes the scoring path allocates on the calling thread. A query may allocate a fixed amount for its
+// plan and page, but scoring twice as many candidates must not allocate more
+class ScoringAllocationTest {
+    // Library size of AllocationBenchmark, whose budgets this test also checks
+    private static final int CANDIDATES = 10_000;
+
+    // Size of the first page the application shows
+    private static final int PAGE_SIZE = 20;
+
+    // Rounds run before measuring, so the scoring loop is compiled and its temporaries are scalar-replaced
+    private static final int WARMUP_ROUNDS = 300;
+
+    // Measurements per operation; the smallest one is kept, as a stray class load or deoptimization only adds bytes
+    private static final int MEASUREMENTS = 5;
+
+    private static final Path BUDGETS = Path.of("src/jmh/allocation-budgets.properties");
+    private static final String BENCHMARK = "com.sample.smartcv.AllocationBenchmark.";
+
+    private static com.sun.management.ThreadMXBean threads;
+    private static JobDescription job;
+    private static List<CV> library;
+    private static List<CV> doubleLibrary;
+
+    @BeforeAll
+    static void setUp() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "JVM does not count allocated bytes per thread");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        job = new JobDescription("Backend Engineer", Set.of("Java", "SQL", "Docker"),
+                new JobDescription.ExperienceRange(5, null),
+                List.of(new JobDescription.DegreeRequirement("Master's", "Computer Science")));
+        CorpusGenerator generator = new CorpusGenerator(CorpusGenerator.DEFAULT_SEED);
+        doubleLibrary = generator.candidates(2 * CANDIDATES);
+        library = new ArrayList<>(doubleLibrary.subList(0, CANDIDATES));
+    }
+
+    @Test
+    void scoringAllocatesNothingPerCandidate() {
+        assertNoPerCandidateBytes(scoreLibrary(new WeightedMatchingService()));
+    }
+
+    @Test
+    void weightedTopKAllocatesNothingPerCandidate() {
+        WeightedMatchingService matcher = new WeightedMatchingService();
+        assertNoPerCandidateBytes(candidates -> matcher.analyzeAndRank(candidates, job, PAGE_SIZE).size());
+    }
+
+    @Test
+    void indexedTopKAllocatesNothingPerCandidate() {
+        // Each library gets its own index, built before anything is counted
+        IndexedMatchingService small = new IndexedMatchingService(library);
+        IndexedMatchingService large = new IndexedMatchingService(doubleLibrary);
+        assertNoPerCandidateBytes(candidates ->
+                (candidates == library ? small : large).analyzeAndRank(candidates, job, PAGE_SIZE).size());
+    }
+
+    // The budgets `gradle jmhAllocationBudget` enforces must hold for the operations AllocationBenchmark runs
+    @Test
+    void allocationBudgetsHold() throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = Files.newInputStream(BUDGETS)) {
+            budgets.load(in);
+        }
+        WeightedMatchingService weighted = new WeightedMatchingService();
+        IndexedMatchingService indexed = new IndexedMatchingService(library);
+        assertWithinBudget(budgets, "scoreLibrary", scoreLibrary(weighted));
+        assertWithinBudget(budgets, "weightedTopK",
+                candidates -> weighted.analyzeAndRank(candidates, job, PAGE_SIZE).size());
+        assertWithinBudget(budgets, "indexedTopK",
+                candidates -> indexed.analyzeAndRank(candidates, job, PAGE_SIZE).size());
+    }
+
+    // Scores every candidate against one compiled plan, like AllocationBenchmark.scoreLibrary
+    private static ToDoubleFunction<List<CV>> scoreLibrary(WeightedMatchingService matcher) {
+        return candidates -> {
+            ScoringPlan plan = ScoringPlan.of(job);
+            double total = 0;
+            for (int i = 0; i < candidates.size(); i++) {
+                total += matcher.calculateMatchScore(candidates.get(i), plan);
+            }
+            return total;
+        };
+    }
+
+    // A query may cost a fixed number of bytes, but less than one byte for each extra candidate; an object per
+    // candidate would add at least 16 bytes each
+    private static void assertNoPerCandidateBytes(ToDoubleFunction<List<CV>> query) {
+        long small = allocated(query, library);
+        long large = allocated(query, doubleLibrary);
+        assertEquals(0, Math.max(0, large - small) / CANDIDATES,
+                "bytes per candidate (" + small + " for " + CANDIDATES + ", " + large + " for " + 2 * CANDIDATES + ")");
+    }
+
+    private static void assertWithinBudget(Properties budgets, String benchmark, ToDoubleFunction<List<CV>> operation) {
+        String budget = budgets.getProperty(BENCHMARK + benchmark);
+        assertTrue(budget != null, "no budget for " + benchmark + " in " + BUDGETS);
+        long bytes = allocated(operation, library);
+        assertTrue(bytes <= Long.parseLong(budget), benchmark + " allocated " + bytes + " bytes, budget " + budget);
+    }
+
+    // Fewest bytes one call allocated on this thread, after warming the operation up on the given candidates
+    private static long allocated(ToDoubleFunction<List<CV>> operation, List<CV> candidates) {
+        double sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += operation.applyAsDouble(candidates);
+        }
+        long thread = Thread.currentThread().threadId();
+        long fewest = Long.MAX_VALUE;
+        for (int i = 0; i < MEASUREMENTS; i++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            sink += operation.applyAsDouble(candidates);
+            fewest = Math.min(fewest, threads.getThreadAllocatedBytes(thread) - before);
+        }
+        // Keeps the results alive, so the calls cannot be dropped as dead code
+        assertTrue(sink >= 0);
+        return fewest;
+    }
+}